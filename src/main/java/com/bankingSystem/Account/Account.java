@@ -4,42 +4,77 @@ package com.bankingSystem.Account;
 import com.bankingSystem.Account.CompositePattern.AccountComponent;
 import com.bankingSystem.Account.statePattern.AccountState;
 import com.bankingSystem.Account.statePattern.ActiveState;
+import com.bankingSystem.Database.AccountRepository;
+import com.bankingSystem.Database.Storage;
 import com.bankingSystem.Interest.InterestStrategy;
+import com.bankingSystem.Transaction.AccountLockManager;
 import com.bankingSystem.Transaction.Transaction;
+import com.bankingSystem.Transaction.TransactionPage;
+import com.bankingSystem.Util.Ids;
+import com.bankingSystem.Util.Money;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
-import java.util.UUID;
+import java.util.Set;
 
 public abstract class Account implements AccountComponent {
     public String accountId;
     public String accountNumber;
-    public double balance;
+    // Minor units (cents). Only written by whoever owns this account's movements: the holder of
+    // its stripe lock in locking mode, the LedgerSequencer thread in sequencer mode, and startup
+    // recovery before either runs. setBalance/loadBalance do not check this; callers must.
+    private volatile long balance;
     public LocalDateTime creationDate;
     public String ownerId;
     public AccountState state;
     public InterestStrategy interestStrategy;
-    public List<Transaction> transactionHistory = new ArrayList<>();
+    // Entries recorded in this session only; the stored history is read page by page on demand
+    public List<Transaction> transactionHistory = Collections.synchronizedList(new ArrayList<>());
+
+    public static final int DEFAULT_HISTORY_PAGE_SIZE = 50;
+
+    // Change tracking: persist() only writes the columns that changed since the last write
+    public enum DirtyField { BALANCE, OWNER, STATE }
+    private final EnumSet<DirtyField> dirtyFields = EnumSet.noneOf(DirtyField.class);
+    private volatile boolean persisted; // true once the row exists in the database
 
     public Account(String accountNumber, String ownerId) {
-        this.accountId = UUID.randomUUID().toString();
+        this.accountId = Ids.next();
         this.accountNumber = accountNumber;
         this.ownerId = ownerId;
-        this.balance = 0.0;
+        this.balance = 0;
         this.creationDate = LocalDateTime.now();
         this.state = new ActiveState();
     }
 
-    // Abstract method - must be overridden in subclasses to return double
-    public abstract double calculateInterest();
+    protected Account(String accountNumber, String ownerId, long openingBalance) {
+        this(accountNumber, ownerId);
+        this.balance = openingBalance;
+    }
+
+    // Abstract method - must be overridden in subclasses to return the interest in minor units
+    public abstract long calculateInterest();
 
-    // State Pattern methods
-    public void deposit(double amount) {
-        state.deposit(this, amount);
+    // State Pattern methods (the check-then-update on balance runs under the account's lock)
+    public void deposit(long amount) {
+        AccountLockManager.Held lock = AccountLockManager.getInstance().lock(accountNumber);
+        try {
+            state.deposit(this, amount);
+        } finally {
+            lock.close();
+        }
     }
-    public void withdraw(double amount) {
-        state.withdraw(this, amount);
+    public void withdraw(long amount) {
+        AccountLockManager.Held lock = AccountLockManager.getInstance().lock(accountNumber);
+        try {
+            state.withdraw(this, amount);
+        } finally {
+            lock.close();
+        }
     }
 
     public void freeze() { state.freeze(this); }
@@ -60,34 +95,118 @@ public abstract class Account implements AccountComponent {
 
     // Getters/Setters
     public String getAccountNumber() { return accountNumber; }
-    public double getBalance() { return balance; }
-    public void setBalance(double balance) { this.balance = balance; }
-    public void setState(AccountState state) { this.state = state; }
-    public List<Transaction> getTransactionHistory() { return new ArrayList<>(transactionHistory); }
+    public long getBalance() { return balance; }
+    public void setBalance(long balance) {
+        this.balance = balance;
+        markDirty(DirtyField.BALANCE);
+    }
+    // For a balance that is already stored (read from a row, or queued for storing), so nothing is marked dirty
+    public void loadBalance(long balance) {
+        this.balance = balance;
+    }
+    public void setState(AccountState state) {
+        this.state = state;
+        markDirty(DirtyField.STATE);
+    }
+    public List<Transaction> getTransactionHistory() {
+        return getTransactionHistoryPage(null, DEFAULT_HISTORY_PAGE_SIZE).transactions();
+    }
+
+    /**
+     * Loads one page of history (newest first) from the database only when asked for.
+     * Pass null for the first page, then the returned page's nextCursor for the following ones.
+     * The first page also shows entries recorded in this session that are not stored yet.
+     */
+    public TransactionPage getTransactionHistoryPage(TransactionPage.Cursor after, int pageSize) {
+        TransactionPage stored = Storage.getInstance().transactions().loadTransactionsPage(accountNumber, after, pageSize);
+        if (after != null) return stored;
+
+        Set<String> storedIds = new HashSet<>();
+        stored.transactions().forEach(tx -> storedIds.add(tx.getTransactionId()));
+        long oldestShown = stored.hasMore() ? stored.nextCursor().timestamp() : Long.MIN_VALUE;
+
+        List<Transaction> result = new ArrayList<>();
+        synchronized (transactionHistory) {
+            for (int i = transactionHistory.size() - 1; i >= 0; i--) {
+                Transaction tx = transactionHistory.get(i);
+                if (storedIds.contains(tx.getTransactionId())) continue;
+                if (tx.getTimestamp() < oldestShown) continue;
+                result.add(tx);
+            }
+        }
+        if (result.isEmpty()) return stored;
+        result.addAll(stored.transactions());
+        return new TransactionPage(result, stored.nextCursor());
+    }
+
     public void setInterestStrategy(InterestStrategy strategy) { this.interestStrategy = strategy; }
     public String getOwnerId() { return ownerId; }
 
     // Composite methods
     public void showDetails() {
-        System.out.printf("%s | %s | Balance: %.2f | Status: %s%n",
-                getClass().getSimpleName(), accountNumber, balance, state.getClass().getSimpleName().replace("State", ""));
+        System.out.printf("%s | %s | Balance: %s | Status: %s%n",
+                getClass().getSimpleName(), accountNumber, Money.format(balance), state.getClass().getSimpleName().replace("State", ""));
     }
 
-    public double getTotalBalance() { return balance; }
+    public long getTotalBalance() { return balance; }
 
     @Override
     public String toString() {
-        return getClass().getSimpleName() + "[" + accountNumber + "] Balance: " + balance;
+        return getClass().getSimpleName() + "[" + accountNumber + "] Balance: " + Money.format(balance);
     }
 
+    /**
+     * Writes pending changes. A new account is inserted in full; afterwards only the dirty
+     * columns are updated, and a persist() with nothing changed does not touch the database.
+     */
     public void persist() {
-        new com.bankingSystem.Database.AccountDAO().saveAccount(this);
+        AccountRepository dao = Storage.getInstance().accounts();
+        if (!persisted) {
+            dao.saveAccount(this);
+            return;
+        }
+        Set<DirtyField> changes = takeDirtyFields();
+        if (changes.isEmpty()) return;
+        if (!dao.updateFields(this, changes)) {
+            // Keep them dirty so the next persist() tries again
+            synchronized (dirtyFields) {
+                dirtyFields.addAll(changes);
+            }
+        }
     }
+
+    public void markDirty(DirtyField field) {
+        synchronized (dirtyFields) {
+            dirtyFields.add(field);
+        }
+    }
+
+    public Set<DirtyField> takeDirtyFields() {
+        synchronized (dirtyFields) {
+            Set<DirtyField> changes = EnumSet.copyOf(dirtyFields);
+            dirtyFields.clear();
+            return changes;
+        }
+    }
+
+    /**
+     * Called by the DAO once the stored row matches this object.
+     */
+    public void markPersisted() {
+        persisted = true;
+        synchronized (dirtyFields) {
+            dirtyFields.clear();
+        }
+    }
+
+    public boolean isPersisted() { return persisted; }
+
     public void modify(String field, String newValue) {
         switch (field.toLowerCase()) {
             case "owner" -> {
                 String old = this.ownerId;
                 this.ownerId = newValue;
+                markDirty(DirtyField.OWNER);
                 System.out.println("Owner changed: " + old + " → " + newValue);
             }
 //            case "risklevel" -> {
@@ -110,7 +229,7 @@ public abstract class Account implements AccountComponent {
                     try {
                         var f = CheckingAccount.class.getDeclaredField("overdraftLimit");
                         f.setAccessible(true);
-                        f.setDouble(chk, Double.parseDouble(newValue));
+                        f.setLong(chk, Money.parse(newValue));
                         System.out.println("Overdraft limit updated to: " + newValue);
                     } catch (Exception e) {
                         throw new RuntimeException("Failed to update overdraft limit", e);
@@ -132,6 +251,7 @@ public abstract class Account implements AccountComponent {
         }
         String oldOwnerId = this.ownerId;
         this.ownerId = newOwnerId;
+        markDirty(DirtyField.OWNER);
 
         // Audit Log مهم جدًا في البنوك
         System.out.println("Account ownership changed: " + oldOwnerId + " → " + newOwnerId
@@ -0,0 +1,137 @@
+package com.bankingSystem.Account;
+
+import com.bankingSystem.Database.Storage;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out unique account numbers such as SAV-0000000125 (Singleton): a product prefix, a
+ * nine-digit sequence number and a Luhn check digit, so a mistyped digit is caught by isValid().
+ *
+ * Numbers come from a per-prefix sequence kept by the account repository (hi/lo): a block of
+ * bank.accountNumbers.blockSize numbers (default 1000) is reserved with one database call and
+ * then handed out from memory with a single atomic increment. Only the thread that finds the
+ * block used up goes back to the database; numbers left in a block at shutdown are skipped,
+ * never reused. Once a prefix has used all nine digits, next() throws IllegalStateException.
+ */
+public class AccountNumberAllocator {
+    private static AccountNumberAllocator instance;
+
+    private static final int SEQUENCE_DIGITS = 9;
+    private static final long MAX_SEQUENCE = 999_999_999;
+
+    private final int blockSize;
+    private final Map<String, Sequence> sequences = new ConcurrentHashMap<>();
+
+    // Numbers [next, end) of one reserved block; next may run past end while threads race for a refill
+    private record Block(AtomicLong next, long end) {
+    }
+
+    private final class Sequence {
+        private final String prefix;
+        private final ReentrantLock refillLock = new ReentrantLock(); // held over a database call, so not a monitor
+        private volatile Block block = new Block(new AtomicLong(), 0); // empty: the first call reserves
+
+        Sequence(String prefix) {
+            this.prefix = prefix;
+        }
+
+        long next() {
+            while (true) {
+                Block current = block;
+                long number = current.next().getAndIncrement();
+                if (number < current.end()) return number;
+                refill(current);
+            }
+        }
+
+        private void refill(Block exhausted) {
+            refillLock.lock();
+            try {
+                if (block != exhausted) return; // another thread already refilled
+                long first = Storage.getInstance().accounts().reserveAccountNumbers(prefix, blockSize);
+                block = new Block(new AtomicLong(first), first + blockSize);
+            } finally {
+                refillLock.unlock();
+            }
+        }
+    }
+
+    AccountNumberAllocator(int blockSize) {
+        if (blockSize <= 0) throw new IllegalArgumentException("Block size must be positive");
+        this.blockSize = blockSize;
+    }
+
+    public static synchronized AccountNumberAllocator getInstance() {
+        if (instance == null) {
+            instance = new AccountNumberAllocator(Integer.getInteger("bank.accountNumbers.blockSize", 1000));
+        }
+        return instance;
+    }
+
+    /**
+     * Next account number for the product prefix (letters only, e.g. "SAV").
+     */
+    public String next(String prefix) {
+        Sequence sequence = sequences.get(prefix);
+        if (sequence == null) {
+            if (!isPrefix(prefix)) throw new IllegalArgumentException("Invalid account number prefix: " + prefix);
+            sequence = sequences.computeIfAbsent(prefix, Sequence::new);
+        }
+        return format(prefix, sequence.next());
+    }
+
+    static String format(String prefix, long number) {
+        if (number < 0 || number > MAX_SEQUENCE) {
+            throw new IllegalStateException("Account numbers for " + prefix + " are exhausted (" + number + ")");
+        }
+        String digits = Long.toString(number);
+        StringBuilder result = new StringBuilder(prefix.length() + SEQUENCE_DIGITS + 2).append(prefix).append('-');
+        for (int i = digits.length(); i < SEQUENCE_DIGITS; i++) result.append('0');
+        int payloadStart = result.length();
+        result.append(digits);
+        return result.append((char) ('0' + luhnCheckDigit(result, payloadStart, result.length()))).toString();
+    }
+
+    /**
+     * True if the number has the form PREFIX-digits and its last digit is the right check digit.
+     */
+    public static boolean isValid(String accountNumber) {
+        if (accountNumber == null) return false;
+        int dash = accountNumber.lastIndexOf('-');
+        if (dash <= 0 || !isPrefix(accountNumber.substring(0, dash)) || accountNumber.length() - dash < 3) return false;
+        for (int i = dash + 1; i < accountNumber.length(); i++) {
+            if (!Character.isDigit(accountNumber.charAt(i))) return false;
+        }
+        int last = accountNumber.length() - 1;
+        return luhnCheckDigit(accountNumber, dash + 1, last) == accountNumber.charAt(last) - '0';
+    }
+
+    // Luhn: double every second digit from the right of the payload, the check digit makes the sum a multiple of 10
+    private static int luhnCheckDigit(CharSequence text, int from, int to) {
+        int sum = 0;
+        boolean doubled = true;
+        for (int i = to - 1; i >= from; i--) {
+            int digit = text.charAt(i) - '0';
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) digit -= 9;
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    private static boolean isPrefix(String prefix) {
+        if (prefix == null || prefix.isEmpty() || prefix.length() > 16) return false;
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (c < 'A' || c > 'Z') return false;
+        }
+        return true;
+    }
+}
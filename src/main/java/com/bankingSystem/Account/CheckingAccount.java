@@ -1,24 +1,26 @@
 // src/main/java/com/bankingSystem/Account/CheckingAccount.java
 package com.bankingSystem.Account;
 
+import com.bankingSystem.Util.Money;
+
 public class CheckingAccount extends Account {
-    private double overdraftLimit = 500.0;
+    private long overdraftLimit = Money.ofMajor(500);
 
     public CheckingAccount(String accountNumber, String ownerId) {
         super(accountNumber, ownerId);
     }
 
-    public boolean canOverdraft(double amount) {
-        return (getBalance() + overdraftLimit) >= amount;
+    public boolean canOverdraft(long amount) {
+        return Money.add(getBalance(), overdraftLimit) >= amount;
     }
 
     @Override
-    public double calculateInterest() {
-        return 0.0; // Checking accounts usually have no interest
+    public long calculateInterest() {
+        return 0; // Checking accounts usually have no interest
     }
 
     @Override
     public String toString() {
-        return "Checking" + super.toString() + String.format(" | Overdraft Limit: %.2f", overdraftLimit);
+        return "Checking" + super.toString() + " | Overdraft Limit: " + Money.format(overdraftLimit);
     }
 }
\ No newline at end of file
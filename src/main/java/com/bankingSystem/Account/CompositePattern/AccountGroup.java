@@ -1,6 +1,8 @@
 // src/main/java/com/bankingSystem/Account/CompositePattern/AccountGroup.java
 package com.bankingSystem.Account.CompositePattern;
 
+import com.bankingSystem.Util.Money;
+
 import java.util.ArrayList;
 import java.util.List;
 
@@ -39,14 +41,14 @@ public class AccountGroup implements AccountComponent {
             component.showDetails();
         }
         System.out.println("────────────────────────────────────────────────");
-        System.out.printf("Total Balance in Group: %,.2f%n", getTotalBalance());
+        System.out.println("Total Balance in Group: " + Money.format(getTotalBalance()));
         System.out.println("════════════════════════════════════════════════\n");
     }
 
     @Override
-    public double getTotalBalance() {
+    public long getTotalBalance() {
         return children.stream()
-                .mapToDouble(AccountComponent::getTotalBalance)
+                .mapToLong(AccountComponent::getTotalBalance)
                 .sum();
     }
 
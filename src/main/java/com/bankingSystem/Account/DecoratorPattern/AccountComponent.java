@@ -23,7 +23,7 @@ public abstract class AccountDecorator extends Account {
     }
 
     @Override
-    public double calculateInterest() {
+    public long calculateInterest() {
         return decoratedAccount.calculateInterest(); // Call original interest method
     }
 }
\ No newline at end of file
@@ -1,4 +1,68 @@
 package com.bankingSystem.Account.DecoratorPattern;
 
+import com.bankingSystem.Account.Account;
+import com.bankingSystem.Transaction.StandingOrder;
+import com.bankingSystem.Transaction.StandingOrderEngine;
+import com.bankingSystem.Transaction.TransactionType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Adds future-dated and recurring transactions to an account. The orders are stored and run
+ * by the StandingOrderEngine; this class only fills in the account's side of them.
+ * Use Recurrence.ONCE for a single future-dated transaction.
+ */
 public class ScheduledTransactionDecorator {
+    private final Account account;
+    private final StandingOrderEngine engine;
+
+    public ScheduledTransactionDecorator(Account account) {
+        this(account, StandingOrderEngine.getInstance());
+    }
+
+    public ScheduledTransactionDecorator(Account account, StandingOrderEngine engine) {
+        this.account = account;
+        this.engine = engine;
+    }
+
+    public StandingOrder scheduleTransfer(Account toAccount, long amount, LocalDateTime firstDue,
+                                          StandingOrder.Recurrence recurrence) {
+        return engine.schedule(TransactionType.TRANSFER, account.getAccountNumber(), toAccount.getAccountNumber(),
+                amount, recurrence, firstDue);
+    }
+
+    public StandingOrder scheduleWithdrawal(long amount, LocalDateTime firstDue, StandingOrder.Recurrence recurrence) {
+        return engine.schedule(TransactionType.WITHDRAW, account.getAccountNumber(), null, amount, recurrence, firstDue);
+    }
+
+    public StandingOrder scheduleDeposit(long amount, LocalDateTime firstDue, StandingOrder.Recurrence recurrence) {
+        return engine.schedule(TransactionType.DEPOSIT, null, account.getAccountNumber(), amount, recurrence, firstDue);
+    }
+
+    /**
+     * Cancels one of this account's orders. Returns false if it is not this account's or no longer active.
+     */
+    public boolean cancel(String orderId) {
+        StandingOrder order = engine.findOrder(orderId);
+        if (order == null || !ownsOrder(order)) return false;
+        return engine.cancel(orderId);
+    }
+
+    /**
+     * Orders paying from or into this account, active or not.
+     */
+    public List<StandingOrder> getStandingOrders() {
+        return engine.ordersFor(account.getAccountNumber());
+    }
+
+    public Account getAccount() {
+        return account;
+    }
+
+    // A deposit order belongs to its target account, everything else to its source
+    private boolean ownsOrder(StandingOrder order) {
+        String owner = order.getType() == TransactionType.DEPOSIT ? order.getToAccount() : order.getFromAccount();
+        return account.getAccountNumber().equals(owner);
+    }
 }
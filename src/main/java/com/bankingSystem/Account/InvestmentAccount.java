@@ -3,8 +3,9 @@ package com.bankingSystem.Account;
 
 import com.bankingSystem.Interest.InterestStrategy;
 import com.bankingSystem.Interest.InvestmentInterest;
+import com.bankingSystem.Util.Money;
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class InvestmentAccount extends Account {
     private String riskLevel; // LOW, MEDIUM, HIGH
@@ -17,12 +18,11 @@ public class InvestmentAccount extends Account {
     }
 
     @Override
-    public double calculateInterest() {
+    public long calculateInterest() {
         // Use Strategy for calculation, with simulation for investment return
-        double baseInterest = interestStrategy.calculateInterest(balance);
+        long baseInterest = interestStrategy.calculateInterest(getBalance());
 
         // Simple simulation for risk (random gain/loss based on riskLevel)
-        Random random = new Random();
 //        double riskMultiplier = switch (riskLevel) {
 //            case "LOW" -> 0.5;    // Low risk: small change
 //            case "MEDIUM" -> 1.0; // Medium
@@ -30,8 +30,8 @@ public class InvestmentAccount extends Account {
 //            default -> 1.0;
 //        };
 
-        double volatility = (random.nextDouble() * 0.20 - 0.10) ; // -10% to +10% adjusted by risk
-        double totalInterest = baseInterest + (balance * volatility);
+        long volatilityBps = ThreadLocalRandom.current().nextLong(-1000, 1001); // -10% to +10% adjusted by risk
+        long totalInterest = baseInterest + Money.applyRate(getBalance(), volatilityBps);
 
         return totalInterest; // Return the value only, do not modify balance here
     }
@@ -43,7 +43,7 @@ public class InvestmentAccount extends Account {
 
     @Override
     public String toString() {
-        return "InvestmentAccount[" + accountNumber + "] | Balance: " + String.format("%.2f", balance) +
-                 " | Expected Interest: " + String.format("%.2f", calculateInterest());
+        return "InvestmentAccount[" + accountNumber + "] | Balance: " + Money.format(getBalance()) +
+                 " | Expected Interest: " + Money.format(calculateInterest());
     }
 }
\ No newline at end of file
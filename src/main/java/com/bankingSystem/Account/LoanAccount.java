@@ -3,27 +3,28 @@ package com.bankingSystem.Account;
 
 import com.bankingSystem.Interest.LoanInterest;
 import com.bankingSystem.Transaction.Transaction;
+import com.bankingSystem.Transaction.TransactionType;
+import com.bankingSystem.Util.Money;
 
 public class LoanAccount extends Account {
-    public double loanAmount;
+    public long loanAmount; // minor units
 
-    public LoanAccount(String accountNumber, String ownerId, double loanAmount) {
-        super(accountNumber, ownerId);
+    public LoanAccount(String accountNumber, String ownerId, long loanAmount) {
+        super(accountNumber, ownerId, -loanAmount); // Negative balance for loan
         this.loanAmount = loanAmount;
-        this.balance = -loanAmount; // Negative balance for loan
         this.interestStrategy = new LoanInterest(); // Strategy Pattern
     }
 
     @Override
-    public double calculateInterest() {
-        return interestStrategy.calculateInterest(balance); // Return double
+    public long calculateInterest() {
+        return interestStrategy.calculateInterest(getBalance()); // Minor units
     }
 
-    public void makePayment(double amount) {
+    public void makePayment(long amount) {
         if (amount > 0) {
-            balance += amount;
-            addTransaction(new Transaction("Loan Payment", amount));
-            notifyObservers("Loan payment: " + amount);
+            setBalance(Money.add(getBalance(), amount));
+            addTransaction(new Transaction(TransactionType.LOAN_PAYMENT, amount));
+            notifyObservers("Loan payment: " + Money.format(amount));
         }
     }
 }
\ No newline at end of file
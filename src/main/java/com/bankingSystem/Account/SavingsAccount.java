@@ -10,7 +10,7 @@ public class SavingsAccount extends Account {
     }
 
     @Override
-    public double calculateInterest() {
-        return interestStrategy.calculateInterest(balance); // Return double
+    public long calculateInterest() {
+        return interestStrategy.calculateInterest(getBalance()); // Minor units
     }
 }
\ No newline at end of file
@@ -3,8 +3,8 @@ package com.bankingSystem.Account.statePattern;
 import com.bankingSystem.Account.Account;
 
 public interface AccountState {
-    void deposit(Account account, double amount);
-    void withdraw(Account account, double amount);
+    void deposit(Account account, long amount);
+    void withdraw(Account account, long amount);
     void freeze(Account account);
     void suspend(Account account);
     void activate(Account account);
@@ -3,46 +3,40 @@ package com.bankingSystem.Account.statePattern;
 
 import com.bankingSystem.Account.Account;
 import com.bankingSystem.Account.CheckingAccount;
-import com.bankingSystem.Transaction.Transaction;
+import com.bankingSystem.Transaction.UnitOfWork;
+import com.bankingSystem.Util.Money;
 
 public class ActiveState implements AccountState {
 
-    private static final double MAX_DEPOSIT_LIMIT = 1000000.0; // Added: Security validation to prevent money laundering
+    private static final long MAX_DEPOSIT_LIMIT = Money.ofMajor(1_000_000); // Added: Security validation to prevent money laundering
 
     @Override
-    public void deposit(Account account, double amount) {
+    public void deposit(Account account, long amount) {
         if (amount <= 0) throw new IllegalArgumentException("Deposit amount must be positive");
-        if (amount > MAX_DEPOSIT_LIMIT) throw new IllegalArgumentException("Deposit exceeds limit: " + MAX_DEPOSIT_LIMIT);
-        account.setBalance(account.getBalance() + amount);
-        account.addTransaction(new Transaction("Deposit", amount));
-        System.out.printf("Deposit successful: +%.2f | New balance: %.2f%n", amount, account.getBalance());
-        account.addTransaction(new Transaction("Deposit", amount));
-        account.persist();
+        if (amount > MAX_DEPOSIT_LIMIT) throw new IllegalArgumentException("Deposit exceeds limit: " + Money.format(MAX_DEPOSIT_LIMIT));
+        account.setBalance(Money.add(account.getBalance(), amount));
+        System.out.printf("Deposit successful: +%s | New balance: %s%n", Money.format(amount), Money.format(account.getBalance()));
+        UnitOfWork.recordMovement(account, amount, null);
     }
 
     @Override
-    public void withdraw(Account account, double amount) {
+    public void withdraw(Account account, long amount) {
         if (amount <= 0) throw new IllegalArgumentException("Withdrawal amount must be positive");
 
         // Support Overdraft for CheckingAccount only
-        if (account instanceof CheckingAccount checking) {
-            if (checking.canOverdraft(amount)) {
-                account.setBalance(account.getBalance() - amount);
-                account.addTransaction(new Transaction("Withdrawal (Overdraft used)", amount));
-                System.out.printf("Withdrawal successful (overdraft): -%.2f | Balance: %.2f%n", amount, account.getBalance());
-                return;
-            }
+        boolean overdraft = account.getBalance() < amount
+                && account instanceof CheckingAccount checking && checking.canOverdraft(amount);
+        if (account.getBalance() < amount && !overdraft) {
+            throw new IllegalStateException("Insufficient funds");
         }
 
-        if (account.getBalance() >= amount) {
-            account.setBalance(account.getBalance() - amount);
-            account.addTransaction(new Transaction("Withdrawal", amount));
-            System.out.printf("Withdrawal successful: -%.2f | New balance: %.2f%n", amount, account.getBalance());
+        account.setBalance(Money.subtract(account.getBalance(), amount));
+        if (overdraft) {
+            System.out.printf("Withdrawal successful (overdraft): -%s | Balance: %s%n", Money.format(amount), Money.format(account.getBalance()));
         } else {
-            throw new IllegalStateException("Insufficient funds");
+            System.out.printf("Withdrawal successful: -%s | New balance: %s%n", Money.format(amount), Money.format(account.getBalance()));
         }
-        account.addTransaction(new Transaction("Withdrawal", amount));
-        account.persist();
+        UnitOfWork.recordMovement(account, -amount, overdraft ? "Overdraft used" : null);
     }
 
     @Override
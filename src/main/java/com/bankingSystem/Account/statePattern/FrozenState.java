@@ -2,21 +2,20 @@
 package com.bankingSystem.Account.statePattern;
 
 import com.bankingSystem.Account.Account;
-import com.bankingSystem.Transaction.Transaction;
+import com.bankingSystem.Transaction.UnitOfWork;
+import com.bankingSystem.Util.Money;
 
 public class FrozenState implements AccountState {
     @Override
-    public void deposit(Account account, double amount) {
+    public void deposit(Account account, long amount) {
         if (amount <= 0) throw new IllegalArgumentException("Deposit amount must be positive");
-        account.setBalance(account.getBalance() + amount);
-        account.addTransaction(new Transaction("Deposit (Frozen)", amount)); // Ensured addition
-        System.out.println("Deposit allowed in frozen account: +" + amount);
-        account.addTransaction(new Transaction("Deposit", amount));
-        account.persist();
+        account.setBalance(Money.add(account.getBalance(), amount));
+        System.out.println("Deposit allowed in frozen account: +" + Money.format(amount));
+        UnitOfWork.recordMovement(account, amount, "Frozen");
     }
 
     @Override
-    public void withdraw(Account account, double amount) {
+    public void withdraw(Account account, long amount) {
         throw new IllegalStateException("Cannot withdraw from frozen account");
     }
 
@@ -6,12 +6,12 @@ import com.bankingSystem.Account.Account;
 public class SuspendedState implements AccountState {
 
     @Override
-    public void deposit(Account account, double amount) {
+    public void deposit(Account account, long amount) {
         throw new IllegalStateException("All operations blocked: Account is SUSPENDED");
     }
 
     @Override
-    public void withdraw(Account account, double amount) {
+    public void withdraw(Account account, long amount) {
         throw new IllegalStateException("All operations blocked: Account is SUSPENDED");
     }
 
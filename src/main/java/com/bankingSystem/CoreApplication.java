@@ -3,25 +3,49 @@ package com.bankingSystem;
 
 import com.bankingSystem.Account.*;
 import com.bankingSystem.Database.*;
+import com.bankingSystem.Transaction.ChainOfResponsability.RuleBasedApprovalHandler;
+import com.bankingSystem.Transaction.StandingOrderEngine;
 import com.bankingSystem.Transaction.TransactionService;
 import com.bankingSystem.user.*;
+import com.bankingSystem.Proxy.AsyncBankingService;
 import com.bankingSystem.Proxy.BankingService;
+import com.bankingSystem.Proxy.OutcomeUnknownException;
+import com.bankingSystem.Proxy.RequestExecutor;
 import com.bankingSystem.Proxy.RoleBasedAccessProxy;
 import com.bankingSystem.Transaction.Transaction;
+import com.bankingSystem.Transaction.TransactionPage;
+import com.bankingSystem.Transaction.TransactionResult;
+import com.bankingSystem.Util.Ids;
+import com.bankingSystem.Util.Money;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
 
 public class CoreApplication {
 
     private static final Scanner scanner = new Scanner(System.in);
-    private static final UserDAO userDAO = new UserDAO();
-    private static final AccountDAO accountDAO = new AccountDAO();
-    private static final TransactionDAO transactionDAO = new TransactionDAO();
+    private static final UserRepository userDAO = Storage.getInstance().users();
+    private static final AccountRepository accountDAO = Storage.getInstance().accounts();
+    private static final TransactionRepository transactionDAO = Storage.getInstance().transactions();
+    private static final int HISTORY_PAGE_SIZE = 20;
+    private static final int PENDING_PAGE_SIZE = 20;
 
     public static void main(String[] args) {
         System.out.println("=== Welcome to Advanced Banking System ===\n");
 
+        // Journal tail after the latest checkpoint, checked against the stored balances
+        // (-Dbank.journal.repair=true fixes them), then keep checkpointing in the background.
+        if (Storage.getInstance().isPersistent()) {
+            JournalCheckpoint checkpoint = JournalCheckpoint.getInstance();
+            boolean repair = Boolean.getBoolean("bank.journal.repair");
+            if (checkpoint.recover(accountDAO, repair) > 0 && !repair) {
+                System.err.println("Stored balances differ from the ledger journal; restart with -Dbank.journal.repair=true to fix them.");
+            }
+            checkpoint.start();
+        }
+        StandingOrderEngine.getInstance(); // starts running due standing orders
+
         while (true) {
             System.out.println("Choose your role:");
             System.out.println("1. Customer");
@@ -34,6 +58,8 @@ public class CoreApplication {
 
             if (roleChoice.equals("4")) {
                 System.out.println("Thank you for using the banking system. Goodbye!");
+                RequestExecutor.shutdown();
+                DatabaseConnection.shutdown();
                 break;
             }
 
@@ -61,8 +87,8 @@ public class CoreApplication {
 
             System.out.println("Login successful! Welcome, " + user.getUsername() + " (" + user.getRole().getDisplayName() + ")\n");
 
-            // Create proxy for this user
-            BankingService bankingService = new RoleBasedAccessProxy(user);
+            // Create proxy for this user; its requests run on virtual threads
+            BankingService bankingService = new AsyncBankingService(new RoleBasedAccessProxy(user));
 
             // Start role-specific menu loop
             roleMenuLoop(bankingService, user);
@@ -122,6 +148,8 @@ public class CoreApplication {
         System.out.println("4. Delete teller");
         System.out.println("5. View all transactions report");
         System.out.println("6. View all accounts report");
+        System.out.println("7. Reload approval rules");
+        System.out.println("8. Review pending approvals");
     }
 
     // ====================== CUSTOMER ACTIONS ======================
@@ -137,9 +165,15 @@ public class CoreApplication {
             case "1" -> {
                 System.out.print("Enter account number: ");
                 String accNum = scanner.nextLine();
-                List<Transaction> history = service.getTransactionHistory(user.getUserId(), accNum);
                 System.out.println("\n--- Transaction History ---");
-                history.forEach(System.out::println);
+                TransactionPage page = service.getTransactionHistoryPage(user.getUserId(), accNum, null, HISTORY_PAGE_SIZE);
+                page.transactions().forEach(System.out::println);
+                while (page.hasMore()) {
+                    System.out.print("Show older transactions? (y/n): ");
+                    if (!scanner.nextLine().trim().equalsIgnoreCase("y")) break;
+                    page = service.getTransactionHistoryPage(user.getUserId(), accNum, page.nextCursor(), HISTORY_PAGE_SIZE);
+                    page.transactions().forEach(System.out::println);
+                }
                 System.out.println();
             }
             case "2", "3", "4" -> performTransaction(service, user, myAccounts, choice);
@@ -167,7 +201,7 @@ public class CoreApplication {
         Account to = toNum.isEmpty() ? null : accountDAO.loadAccount(toNum);
 
         System.out.print("Amount: ");
-        double amount = Double.parseDouble(scanner.nextLine());
+        long amount = Money.parse(scanner.nextLine());
 
         String type = switch (typeChoice) {
             case "2" -> "DEPOSIT";
@@ -176,7 +210,15 @@ public class CoreApplication {
             default -> "";
         };
 
-        service.performTransaction(user.getUserId(), from, to, amount, type);
+        // One key per posting: if its outcome is unknown, asking again with the same key returns
+        // what the first attempt did (or waits for it) instead of moving the money twice
+        String requestKey = Ids.next();
+        try {
+            service.performTransaction(user.getUserId(), requestKey, from, to, amount, type);
+        } catch (OutcomeUnknownException e) {
+            System.out.println(e.getMessage() + ". Checking its outcome...");
+            service.performTransaction(user.getUserId(), requestKey, from, to, amount, type);
+        }
         System.out.println();
     }
 
@@ -220,10 +262,10 @@ public class CoreApplication {
                 String toNum = scanner.nextLine();
                 Account to = toNum.isEmpty() ? null : accountDAO.loadAccount(toNum);
                 System.out.print("Amount: ");
-                double amount = Double.parseDouble(scanner.nextLine());
+                long amount = Money.parse(scanner.nextLine());
                 System.out.print("Type (deposit/withdraw/transfer): ");
                 String type = scanner.nextLine().toUpperCase();
-                new TransactionService().processTransaction(from, to, amount, type); // Direct access for teller
+                new TransactionService(Role.TELLER).processTransaction(from, to, amount, type); // Direct access for teller
                 System.out.println();
             }
             default -> System.out.println("Invalid choice.\n");
@@ -260,15 +302,57 @@ public class CoreApplication {
                 System.out.println("Teller deleted (if existed).\n");
             }
             case "5" -> {
-                List<Transaction> allTx = service.getAllTransactionsReport();
-                System.out.println("\n--- All Transactions Report (" + allTx.size() + ") ---");
-                allTx.forEach(System.out::println);
-                System.out.println();
+                System.out.println("\n--- All Transactions Report ---");
+                long[] count = {0};
+                service.streamAllTransactionsReport(tx -> {
+                    System.out.println(tx);
+                    count[0]++;
+                });
+                System.out.println("(" + count[0] + " transactions)\n");
             }
             case "6" -> {
-                List<Account> allAcc = service.getAllAccountsReport();
-                System.out.println("\n--- All Accounts Report (" + allAcc.size() + ") ---");
-                allAcc.forEach(acc -> acc.showDetails());
+                System.out.println("\n--- All Accounts Report ---");
+                long[] count = {0};
+                service.streamAllAccountsReport(acc -> {
+                    acc.showDetails();
+                    count[0]++;
+                });
+                System.out.println("(" + count[0] + " accounts)\n");
+            }
+            case "7" -> {
+                try {
+                    RuleBasedApprovalHandler.getInstance().reload();
+                } catch (RuntimeException e) {
+                    System.out.println("Rules not changed: " + e.getMessage());
+                }
+                System.out.println();
+            }
+            case "8" -> {
+                List<Transaction> pending = service.getPendingApprovals(PENDING_PAGE_SIZE);
+                if (pending.isEmpty()) {
+                    System.out.println("No transactions waiting for approval.\n");
+                    return;
+                }
+                System.out.println("\n--- Pending Approvals (largest first) ---");
+                for (int i = 0; i < pending.size(); i++) {
+                    System.out.println((i + 1) + ". " + pending.get(i));
+                }
+                System.out.print("Approve which? (numbers separated by commas, 'all', or empty to go back): ");
+                String answer = scanner.nextLine().trim();
+                if (answer.isEmpty()) return;
+                List<String> ids = new ArrayList<>();
+                if (answer.equalsIgnoreCase("all")) {
+                    pending.forEach(tx -> ids.add(tx.getTransactionId()));
+                } else {
+                    for (String part : answer.split(",")) {
+                        int index = Integer.parseInt(part.trim()) - 1;
+                        if (index >= 0 && index < pending.size()) ids.add(pending.get(index).getTransactionId());
+                    }
+                }
+                for (TransactionResult result : service.approvePendingTransactions(ids)) {
+                    System.out.println(result.outcome() + " | " + result.transaction().getDescription()
+                            + (result.isCompleted() ? "" : " | " + result.message()));
+                }
                 System.out.println();
             }
             default -> System.out.println("Invalid choice.\n");
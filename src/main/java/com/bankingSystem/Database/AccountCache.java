@@ -0,0 +1,139 @@
+package com.bankingSystem.Database;
+
+import com.bankingSystem.Account.Account;
+import com.bankingSystem.Account.LoanAccount;
+import com.bankingSystem.Account.statePattern.AccountState;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Bounded LRU cache and identity map for accounts (Singleton).
+ * It holds at most one canonical Account instance per account number. AccountDAO serves hot
+ * accounts from here and writes through on every save/update, so a cached instance always
+ * matches the stored row. When the cache is full, the least recently used account is evicted.
+ * Inside a unit of work the row is not committed yet, so every change made to the cache there
+ * registers its undo with DatabaseConnection.onRollback().
+ */
+public class AccountCache {
+    private static final AccountCache INSTANCE = new AccountCache(
+            Integer.getInteger("bank.cache.accounts.maxSize", 10_000));
+
+    private final Map<String, Account> accounts;
+    private long hits;
+    private long misses;
+
+    AccountCache(int maxSize) {
+        this.accounts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Account> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    public static AccountCache getInstance() {
+        return INSTANCE;
+    }
+
+    public synchronized Account get(String accountNumber) {
+        Account account = accounts.get(accountNumber);
+        if (account != null) hits++;
+        else misses++;
+        return account;
+    }
+
+    /**
+     * Returns the cached instance for this account if there is one, otherwise caches and
+     * returns the given freshly loaded instance.
+     */
+    public synchronized Account canonical(Account loaded) {
+        Account existing = accounts.putIfAbsent(loaded.getAccountNumber(), loaded);
+        if (existing != null) return existing;
+        undoOnRollback(() -> remove(loaded)); // it may have read the unit's own uncommitted writes
+        return loaded;
+    }
+
+    /**
+     * Like canonical() but does not cache the loaded instance. Used by bulk reads such as
+     * reports, so one full scan does not push every hot account out of the cache.
+     */
+    public synchronized Account canonicalIfCached(Account loaded) {
+        Account existing = accounts.get(loaded.getAccountNumber());
+        return existing != null ? existing : loaded;
+    }
+
+    /**
+     * Write-through after the given fields of an account were stored (null: the whole row).
+     * The saved instance is cached if the account has none yet. If another instance is
+     * canonical it stays so, since other threads hold and change it, and it takes the stored
+     * values instead of being replaced by the copy.
+     */
+    public synchronized void saved(Account saved, Set<Account.DirtyField> fields) {
+        Account canonical = accounts.putIfAbsent(saved.getAccountNumber(), saved);
+        if (canonical == null) {
+            undoOnRollback(() -> remove(saved));
+            return;
+        }
+        if (canonical == saved) return;
+        undoOnRollback(restorer(canonical));
+        if (fields == null || fields.contains(Account.DirtyField.BALANCE)) canonical.loadBalance(saved.getBalance());
+        if (fields == null || fields.contains(Account.DirtyField.OWNER)) canonical.ownerId = saved.ownerId;
+        if (fields == null || fields.contains(Account.DirtyField.STATE)) canonical.state = saved.state;
+        if (fields == null && canonical instanceof LoanAccount loan && saved instanceof LoanAccount savedLoan) {
+            loan.loanAmount = savedLoan.loanAmount;
+        }
+    }
+
+    /**
+     * Write-through of a column stored by account number alone; change applies it to the
+     * cached instance, if there is one.
+     */
+    public synchronized void saved(String accountNumber, Consumer<Account> change) {
+        Account canonical = accounts.get(accountNumber);
+        if (canonical == null) return;
+        undoOnRollback(restorer(canonical));
+        change.accept(canonical);
+    }
+
+    // Puts back the values the canonical instance has now
+    private static Runnable restorer(Account canonical) {
+        long balance = canonical.getBalance();
+        String ownerId = canonical.ownerId;
+        AccountState state = canonical.state;
+        long loanAmount = canonical instanceof LoanAccount loan ? loan.loanAmount : 0;
+        return () -> {
+            canonical.loadBalance(balance);
+            canonical.ownerId = ownerId;
+            canonical.state = state;
+            if (canonical instanceof LoanAccount loan) loan.loanAmount = loanAmount;
+        };
+    }
+
+    private static void undoOnRollback(Runnable undo) {
+        DatabaseConnection.getInstance().onRollback(undo);
+    }
+
+    private synchronized void remove(Account account) {
+        accounts.remove(account.getAccountNumber(), account);
+    }
+
+    public synchronized boolean isCanonical(Account account) {
+        return accounts.get(account.getAccountNumber()) == account;
+    }
+
+    public synchronized void evict(String accountNumber) {
+        accounts.remove(accountNumber);
+    }
+
+    public synchronized void clear() {
+        accounts.clear();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("AccountCache[size=%d, hits=%d, misses=%d]", accounts.size(), hits, misses);
+    }
+}
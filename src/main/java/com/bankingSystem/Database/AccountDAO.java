@@ -2,26 +2,29 @@ package com.bankingSystem.Database;
 
 import com.bankingSystem.Account.*;
 import com.bankingSystem.Account.statePattern.*;
-import com.bankingSystem.Transaction.Transaction;
+import com.bankingSystem.Util.Money;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
-public class AccountDAO {
-    private final Connection conn = DatabaseConnection.getInstance().getConnection();
-
+public class AccountDAO implements AccountRepository {
+    private final AccountCache cache = AccountCache.getInstance();
 
     public void saveAccount(Account account) {
         String sql = """
     MERGE INTO Accounts KEY(accountId) 
     VALUES (?, ?, ?, ?, ?, ?, ?, ?)
     """;
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, account.accountId);
             pstmt.setString(2, account.getAccountNumber());
-            pstmt.setDouble(3, account.getBalance());
+            pstmt.setLong(3, account.getBalance());
             pstmt.setObject(4, account.creationDate);
             pstmt.setString(5, account.ownerId);
             pstmt.setString(6, account.state.getClass().getSimpleName().replace("State", ""));
@@ -34,39 +37,116 @@ public class AccountDAO {
 //            }
 
             if (account instanceof LoanAccount loan) {
-                pstmt.setDouble(8, loan.loanAmount); // افتح المتغير loanAmount بجعله protected أو أضف getter
+                pstmt.setLong(8, loan.loanAmount); // افتح المتغير loanAmount بجعله protected أو أضف getter
             } else {
-                pstmt.setDouble(8, 0.0);
+                pstmt.setLong(8, 0);
             }
 
             pstmt.executeUpdate();
+            account.markPersisted();
+            cache.saved(account, null); // write-through
             System.out.println("Account saved/updated in database: " + account.getAccountNumber());
         } catch (SQLException e) {
             System.err.println("Error saving account: " + e.getMessage());
             e.printStackTrace();
+            DatabaseConnection.getInstance().rethrowIfInTransaction(e);
         }
     }
 
-    public void updateBalance(String accountNumber, double newBalance) {
+    public void updateBalance(String accountNumber, long newBalance) {
         String sql = "UPDATE Accounts SET balance = ? WHERE accountNumber = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setDouble(1, newBalance);
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setLong(1, newBalance);
             pstmt.setString(2, accountNumber);
             int rows = pstmt.executeUpdate();
             if (rows > 0) {
-                System.out.println("Balance updated for " + accountNumber + " → " + newBalance);
+                cache.saved(accountNumber, cached -> cached.loadBalance(newBalance));
+                System.out.println("Balance updated for " + accountNumber + " → " + Money.format(newBalance));
             }
         } catch (SQLException e) {
             System.err.println("Error updating balance: " + e.getMessage());
+            DatabaseConnection.getInstance().rethrowIfInTransaction(e);
+        }
+    }
+
+    public void storeBalances(Map<String, Long> balances) {
+        String sql = "UPDATE Accounts SET balance = ? WHERE accountNumber = ?";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (Map.Entry<String, Long> balance : balances.entrySet()) {
+                pstmt.setLong(1, balance.getValue());
+                pstmt.setString(2, balance.getKey());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        } catch (SQLException e) {
+            System.err.println("Error storing balances: " + e.getMessage());
+            DatabaseConnection.getInstance().rethrowIfInTransaction(e);
         }
     }
 
+    /**
+     * Targeted UPDATE of just the changed columns, e.g. only balance after a deposit.
+     * Returns false if the write failed.
+     */
+    public boolean updateFields(Account account, Set<Account.DirtyField> fields) {
+        List<String> assignments = new ArrayList<>();
+        for (Account.DirtyField field : fields) {
+            assignments.add(switch (field) {
+                case BALANCE -> "balance = ?";
+                case OWNER -> "ownerId = ?";
+                case STATE -> "state = ?";
+            });
+        }
+        String sql = "UPDATE Accounts SET " + String.join(", ", assignments) + " WHERE accountId = ?";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            for (Account.DirtyField field : fields) {
+                switch (field) {
+                    case BALANCE -> pstmt.setLong(i++, account.getBalance());
+                    case OWNER -> pstmt.setString(i++, account.ownerId);
+                    case STATE -> pstmt.setString(i++, account.state.getClass().getSimpleName().replace("State", ""));
+                }
+            }
+            pstmt.setString(i, account.accountId);
+            pstmt.executeUpdate();
+            cache.saved(account, fields);
+            System.out.println("Account updated in database: " + account.getAccountNumber() + " " + fields);
+            return true;
+        } catch (SQLException e) {
+            System.err.println("Error updating account: " + e.getMessage());
+            DatabaseConnection.getInstance().rethrowIfInTransaction(e);
+            return false;
+        }
+    }
+
+    /**
+     * Reads only the stored balance, or null if the account has not been saved yet.
+     */
+    public Long loadBalance(String accountNumber) {
+        String sql = "SELECT balance FROM Accounts WHERE accountNumber = ?";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, accountNumber);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return rs.getLong("balance");
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading balance: " + e.getMessage());
+        }
+        return null;
+    }
 
     public void deleteAccount(String accountNumber) {
         String sql = "DELETE FROM Accounts WHERE accountNumber = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, accountNumber);
             int rows = pstmt.executeUpdate();
+            cache.evict(accountNumber);
             if (rows > 0) {
                 System.out.println("Account deleted permanently: " + accountNumber);
             } else {
@@ -74,30 +154,40 @@ public class AccountDAO {
             }
         } catch (SQLException e) {
             System.err.println("Error deleting account: " + e.getMessage());
+            DatabaseConnection.getInstance().rethrowIfInTransaction(e);
         }
     }
 
     public void updateAccountState(String accountNumber, String newState) {
         String sql = "UPDATE Accounts SET state = ? WHERE accountNumber = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, newState); // مثال: "Active", "Frozen", "Suspended", "Closed"
             pstmt.setString(2, accountNumber);
             int rows = pstmt.executeUpdate();
             if (rows > 0) {
+                cache.saved(accountNumber, cached -> cached.state = stateFor(newState));
                 System.out.println("State updated to " + newState + " for " + accountNumber);
             }
         } catch (SQLException e) {
             System.err.println("Error updating state: " + e.getMessage());
+            DatabaseConnection.getInstance().rethrowIfInTransaction(e);
         }
     }
 
     public Account loadAccount(String accountNumber) {
+        Account cached = cache.get(accountNumber);
+        if (cached != null) {
+            return cached;
+        }
+
         String sql = "SELECT * FROM Accounts WHERE accountNumber = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, accountNumber);
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
-                return buildAccountFromResultSet(rs);
+                return cache.canonical(buildAccountFromResultSet(rs));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -108,10 +198,11 @@ public class AccountDAO {
     public List<Account> getAllAccounts() {
         List<Account> accounts = new ArrayList<>();
         String sql = "SELECT * FROM Accounts";
-        try (Statement stmt = conn.createStatement();
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
-                accounts.add(buildAccountFromResultSet(rs));
+                accounts.add(cache.canonicalIfCached(buildAccountFromResultSet(rs)));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -119,17 +210,30 @@ public class AccountDAO {
         return accounts;
     }
 
+    /**
+     * Constant-memory variant of getAllAccounts() for reports.
+     */
+    public void streamAllAccounts(Consumer<? super Account> sink) {
+        try {
+            DatabaseConnection.getInstance().stream("SELECT * FROM Accounts", TransactionDAO.REPORT_FETCH_SIZE,
+                    rs -> cache.canonicalIfCached(buildAccountFromResultSet(rs)), sink);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
     /**
      * جلب كل حسابات عميل معين (مفيد لعرض لوحة التحكم الشخصية)
      */
     public List<Account> getAccountsByOwner(String ownerId) {
         List<Account> accounts = new ArrayList<>();
         String sql = "SELECT * FROM Accounts WHERE ownerId = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, ownerId);
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
-                accounts.add(buildAccountFromResultSet(rs));
+                accounts.add(cache.canonical(buildAccountFromResultSet(rs)));
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -137,6 +241,33 @@ public class AccountDAO {
         return accounts;
     }
 
+    /**
+     * Runs on its own connection and commits at once, outside any unit of work on this thread.
+     * The UPDATE locks the prefix row, so concurrent reservations (also from other processes
+     * on the same database) always get disjoint blocks.
+     */
+    public long reserveAccountNumbers(String prefix, int count) {
+        String createSql = """
+                MERGE INTO AccountNumberBlocks t USING (VALUES (CAST(? AS VARCHAR(16)))) s(prefix) ON t.prefix = s.prefix
+                WHEN NOT MATCHED THEN INSERT (prefix, nextValue) VALUES (s.prefix, 1)""";
+        String reserveSql = "SELECT nextValue FROM OLD TABLE (UPDATE AccountNumberBlocks SET nextValue = nextValue + ? WHERE prefix = ?)";
+        try (Connection conn = DatabaseConnection.getInstance().getIndependentConnection();
+             PreparedStatement create = conn.prepareStatement(createSql);
+             PreparedStatement reserve = conn.prepareStatement(reserveSql)) {
+            create.setString(1, prefix);
+            create.executeUpdate();
+            reserve.setInt(1, count);
+            reserve.setString(2, prefix);
+            try (ResultSet rs = reserve.executeQuery()) {
+                if (rs.next()) return rs.getLong(1);
+            }
+            throw new SQLException("No sequence row for prefix " + prefix);
+        } catch (SQLException e) {
+            // Nothing sensible to hand out without a reservation
+            throw new RuntimeException("Cannot reserve account numbers for " + prefix + ": " + e.getMessage(), e);
+        }
+    }
+
     // دالة مساعدة لتحويل الـ ResultSet إلى كائن Account
     private Account buildAccountFromResultSet(ResultSet rs) throws SQLException {
         String type = rs.getString("type");
@@ -148,7 +279,7 @@ public class AccountDAO {
             case "SavingsAccount" -> account = new SavingsAccount(number, owner);
             case "CheckingAccount" -> account = new CheckingAccount(number, owner);
             case "LoanAccount" -> {
-                double loanAmount = rs.getDouble("loanAmount");
+                long loanAmount = rs.getLong("loanAmount");
                 account = new LoanAccount(number, owner, loanAmount);
             }
             case "InvestmentAccount" -> {
@@ -161,20 +292,23 @@ public class AccountDAO {
         }
 
         account.accountId = rs.getString("accountId");
-        account.balance = rs.getDouble("balance");
+        account.loadBalance(rs.getLong("balance"));
         account.creationDate = rs.getObject("creationDate", LocalDateTime.class);
 
         // استعادة الحالة
-        String stateName = rs.getString("state");
-        account.setState(switch (stateName) {
+        account.setState(stateFor(rs.getString("state")));
+        // History is not loaded here; Account.getTransactionHistory() pages it in on demand
+        account.markPersisted();
+        return account;
+    }
+
+    static AccountState stateFor(String stateName) {
+        return switch (stateName) {
             case "Active" -> new ActiveState();
             case "Frozen" -> new FrozenState();
             case "Suspended" -> new SuspendedState();
             case "Closed" -> new ClosedState();
             default -> new ActiveState();
-        });
-        List<Transaction> history = new TransactionDAO().loadTransactions(account.getAccountNumber());
-        account.transactionHistory.addAll(history);
-        return account;
+        };
     }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package com.bankingSystem.Database;
+
+import com.bankingSystem.Account.Account;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Storage of accounts. AccountDAO is the H2 implementation, InMemoryAccountRepository the
+ * in-memory one; Storage.getInstance() decides which one the application uses.
+ */
+public interface AccountRepository {
+    void saveAccount(Account account);
+
+    void updateBalance(String accountNumber, long newBalance);
+
+    /**
+     * Writes many balances (account number to balance) at once. Unlike updateBalance it leaves
+     * cached accounts alone: it is for catching the stored rows up with balances the cached
+     * instances already hold (see LedgerSequencer).
+     */
+    void storeBalances(Map<String, Long> balances);
+
+    /**
+     * Writes only the given fields of an already stored account. Returns false if the write failed.
+     */
+    boolean updateFields(Account account, Set<Account.DirtyField> fields);
+
+    /**
+     * The stored balance, or null if the account has not been saved yet.
+     */
+    Long loadBalance(String accountNumber);
+
+    void deleteAccount(String accountNumber);
+
+    void updateAccountState(String accountNumber, String newState);
+
+    Account loadAccount(String accountNumber);
+
+    List<Account> getAllAccounts();
+
+    void streamAllAccounts(Consumer<? super Account> sink);
+
+    List<Account> getAccountsByOwner(String ownerId);
+
+    /**
+     * Reserves count consecutive account numbers for the prefix and returns the first one.
+     * The reservation is permanent even if the caller's unit of work rolls back, so a number
+     * is never handed out twice; unused numbers of a block are simply skipped.
+     */
+    long reserveAccountNumbers(String prefix, int count);
+}
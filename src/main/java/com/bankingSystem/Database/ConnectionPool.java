@@ -0,0 +1,328 @@
+package com.bankingSystem.Database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Small JDBC connection pool used behind {@link DatabaseConnection#getConnection()}.
+ * Every borrowed connection is a proxy: calling close() hands the physical connection
+ * back to the pool instead of closing it, so DAOs simply use try-with-resources.
+ * Leak detection is off when leakThresholdMillis is 0; the borrower's stack is only captured
+ * with traceBorrowSites, since that costs a stack walk on every borrow.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long validationIntervalNanos;
+    private final long leakThresholdMillis;
+    private final boolean traceBorrowSites;
+
+    private final LinkedBlockingDeque<PooledEntry> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+    private final AtomicInteger totalConnections = new AtomicInteger();
+    private final Map<Connection, Lease> leases = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService housekeeper;
+
+    // Statistics (exposed through getStats())
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong leakCount = new AtomicLong();
+
+    private volatile boolean closed;
+
+    private ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+                           long borrowTimeoutMillis, long validationIntervalMillis, long leakThresholdMillis,
+                           boolean traceBorrowSites) {
+        if (minSize < 0 || maxSize <= 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Invalid pool size: min=" + minSize + ", max=" + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.validationIntervalNanos = TimeUnit.MILLISECONDS.toNanos(validationIntervalMillis);
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.traceBorrowSites = traceBorrowSites && leakThresholdMillis > 0;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Creates the pool and starts its housekeeper (leak reports and refilling to minSize).
+     */
+    public static ConnectionPool create(String url, String user, String password, int minSize, int maxSize,
+                                        long borrowTimeoutMillis, long validationIntervalMillis,
+                                        long leakThresholdMillis, boolean traceBorrowSites) {
+        ConnectionPool pool = new ConnectionPool(url, user, password, minSize, maxSize, borrowTimeoutMillis,
+                validationIntervalMillis, leakThresholdMillis, traceBorrowSites);
+        long period = leakThresholdMillis > 0 ? Math.max(1000, leakThresholdMillis / 2) : 30_000;
+        pool.housekeeper.scheduleAtFixedRate(pool::housekeep, period, period, TimeUnit.MILLISECONDS);
+        return pool;
+    }
+
+    /**
+     * Opens the minimum number of connections up front so the first requests do not pay for it.
+     */
+    public void warmUp() throws SQLException {
+        while (totalConnections.get() < minSize) {
+            idle.offerLast(new PooledEntry(openPhysical()));
+        }
+    }
+
+    /**
+     * Borrows a connection, waiting up to the configured timeout when all connections are in use.
+     * The caller must close() the returned connection to give it back.
+     */
+    public Connection borrow() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.incrementAndGet();
+                throw new SQLException("Timed out after " + borrowTimeoutMillis
+                        + " ms waiting for a database connection (" + getStats() + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            PooledEntry entry = takeUsableIdle();
+            if (entry == null) {
+                entry = new PooledEntry(openPhysical());
+            }
+            return lease(entry);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public PoolStats getStats() {
+        long borrows = borrowCount.get();
+        int idleNow = idle.size();
+        return new PoolStats(
+                leases.size(),
+                idleNow,
+                totalConnections.get(),
+                maxSize,
+                permits.getQueueLength(),
+                borrows,
+                borrows == 0 ? 0.0 : totalWaitNanos.get() / 1_000_000.0 / borrows,
+                maxWaitNanos.get() / 1_000_000.0,
+                timeoutCount.get(),
+                leakCount.get());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            discard(entry.physical);
+        }
+        if (!leases.isEmpty()) {
+            System.err.println("Connection pool closed with " + leases.size() + " connection(s) still borrowed");
+        }
+    }
+
+    // ====================== Internals ======================
+
+    private PooledEntry takeUsableIdle() {
+        PooledEntry entry;
+        while ((entry = idle.pollFirst()) != null) {
+            if (isUsable(entry)) return entry;
+            discard(entry.physical);
+        }
+        return null;
+    }
+
+    private boolean isUsable(PooledEntry entry) {
+        try {
+            if (entry.physical.isClosed()) return false;
+            // Only pay for a round trip when the connection sat idle for a while
+            if (System.nanoTime() - entry.lastUsedNanos > validationIntervalNanos) {
+                return entry.physical.isValid(5);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private Connection openPhysical() throws SQLException {
+        Connection physical = DriverManager.getConnection(url, user, password);
+        totalConnections.incrementAndGet();
+        return physical;
+    }
+
+    private void discard(Connection physical) {
+        totalConnections.decrementAndGet();
+        try {
+            physical.close();
+        } catch (SQLException ignored) {
+            // Already broken, nothing else to do
+        }
+    }
+
+    private Connection lease(PooledEntry entry) {
+        Lease lease = new Lease(entry);
+        Connection proxy = (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, lease);
+        lease.proxy = proxy;
+        leases.put(proxy, lease);
+        borrowCount.incrementAndGet();
+        return proxy;
+    }
+
+    private void giveBack(Lease lease) {
+        leases.remove(lease.proxy);
+        PooledEntry entry = lease.entry;
+        try {
+            if (closed || entry.physical.isClosed()) {
+                discard(entry.physical);
+                return;
+            }
+            // Never hand out a connection with an open transaction from a previous borrower
+            if (!entry.physical.getAutoCommit()) {
+                entry.physical.rollback();
+                entry.physical.setAutoCommit(true);
+            }
+            entry.physical.clearWarnings();
+            entry.lastUsedNanos = System.nanoTime();
+            idle.offerFirst(entry);
+        } catch (SQLException e) {
+            discard(entry.physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.addAndGet(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    private void housekeep() {
+        long now = System.currentTimeMillis();
+        for (Lease lease : leases.values()) {
+            if (leakThresholdMillis > 0 && !lease.leakReported && now - lease.borrowedAt > leakThresholdMillis) {
+                lease.leakReported = true;
+                leakCount.incrementAndGet();
+                System.err.println("Possible connection leak: connection borrowed by thread '"
+                        + lease.borrowerThread + "' has not been returned for " + (now - lease.borrowedAt) + " ms");
+                if (lease.borrowSite != null) lease.borrowSite.printStackTrace();
+            }
+        }
+        try {
+            if (!closed) warmUp();
+        } catch (SQLException e) {
+            System.err.println("Error refilling connection pool: " + e.getMessage());
+        }
+    }
+
+    private static final class PooledEntry {
+        final Connection physical;
+        volatile long lastUsedNanos = System.nanoTime();
+
+        PooledEntry(Connection physical) {
+            this.physical = physical;
+        }
+    }
+
+    /**
+     * One borrow of a physical connection. Acts as the proxy handler so that close()
+     * returns the connection to the pool and any later use fails fast.
+     */
+    private final class Lease implements InvocationHandler {
+        final PooledEntry entry;
+        final long borrowedAt = System.currentTimeMillis();
+        final String borrowerThread = Thread.currentThread().getName();
+        final Throwable borrowSite = traceBorrowSites ? new Throwable("Connection borrowed here") : null;
+        Connection proxy;
+        volatile boolean returned;
+        volatile boolean leakReported;
+
+        Lease(PooledEntry entry) {
+            this.entry = entry;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        giveBack(this);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return returned || entry.physical.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "PooledConnection[" + entry.physical + "]";
+                }
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                return method.invoke(entry.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Snapshot of pool usage, useful for sizing the pool under load.
+     */
+    public record PoolStats(int active, int idle, int total, int maxSize, int waitingThreads,
+                            long borrowCount, double avgWaitMillis, double maxWaitMillis,
+                            long timeouts, long leaksDetected) {
+        @Override
+        public String toString() {
+            return String.format("active=%d, idle=%d, total=%d/%d, waiting=%d, borrows=%d, avgWait=%.2fms, maxWait=%.2fms, timeouts=%d, leaks=%d",
+                    active, idle, total, maxSize, waitingThreads, borrowCount, avgWaitMillis, maxWaitMillis, timeouts, leaksDetected);
+        }
+    }
+}
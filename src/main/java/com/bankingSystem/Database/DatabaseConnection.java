@@ -1,20 +1,45 @@
 // src/main/java/com/bankingSystem/Database/DatabaseConnection.java (Singleton)
 package com.bankingSystem.Database;
 
+import com.bankingSystem.Transaction.LedgerSequencer;
+import com.bankingSystem.Transaction.StandingOrderEngine;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
 
 public class DatabaseConnection {
+    private static final String URL = System.getProperty("bank.db.url",
+            "jdbc:h2:./data/bank;DB_CLOSE_DELAY=-1;AUTO_SERVER=TRUE");
+
     private static DatabaseConnection instance;
-    private Connection connection;
+    private final ConnectionPool pool;
+    // Connection of the unit of work running on the current thread (see inTransaction)
+    private final ThreadLocal<Connection> currentTransaction = new ThreadLocal<>();
+    // In-memory effects of that unit (e.g. cache write-through) to take back if it rolls back
+    private final ThreadLocal<Deque<Runnable>> undoLog = new ThreadLocal<>();
 
     private DatabaseConnection() {
+        // Pool sizing can be tuned with -Dbank.db.pool.* without touching the code
+        pool = ConnectionPool.create(URL, "sa", "",
+                Integer.getInteger("bank.db.pool.minSize", 2),
+                Integer.getInteger("bank.db.pool.maxSize", 10),
+                Long.getLong("bank.db.pool.borrowTimeoutMs", 30_000L),
+                Long.getLong("bank.db.pool.validationIntervalMs", 30_000L),
+                Long.getLong("bank.db.pool.leakThresholdMs", 60_000L),
+                Boolean.getBoolean("bank.db.pool.leakTrace"));
         try {
             // H2 in-memory DB (يمكن تغيير إلى file:./bank.db للحفظ الدائم)
-            connection = DriverManager.getConnection("jdbc:h2:./data/bank;DB_CLOSE_DELAY=-1;AUTO_SERVER=TRUE", "sa", "");
+            pool.warmUp();
             initializeDatabase(); // إنشاء الجداول
         } catch (SQLException e) {
+            pool.close();
             throw new RuntimeException("Error connecting to database", e);
         }
     }
@@ -26,41 +51,160 @@ public class DatabaseConnection {
         return instance;
     }
 
-    public Connection getConnection() {
-        return connection;
+    /**
+     * Borrows a connection from the pool. Callers must close it (try-with-resources)
+     * so it goes back to the pool. Inside inTransaction() the thread's transactional
+     * connection is returned instead, and closing it is a no-op.
+     */
+    public Connection getConnection() throws SQLException {
+        Connection transactional = currentTransaction.get();
+        if (transactional != null) {
+            return nonClosing(transactional);
+        }
+        return pool.borrow();
+    }
+
+    /**
+     * Borrows a pooled connection that never joins the thread's unit of work, for writes that
+     * must stay committed even if the surrounding unit rolls back (e.g. reserved account numbers).
+     */
+    public Connection getIndependentConnection() throws SQLException {
+        return pool.borrow();
+    }
+
+    /**
+     * Runs the given work as one JDBC transaction: every DAO call made by the work on this
+     * thread shares the same connection and is committed once at the end, or rolled back
+     * entirely if the work throws. Nested calls join the outer transaction.
+     */
+    public <T> T inTransaction(TransactionalWork<T> work) {
+        if (currentTransaction.get() != null) {
+            try {
+                return work.execute();
+            } catch (SQLException e) {
+                throw new RuntimeException("Database error: " + e.getMessage(), e);
+            }
+        }
+
+        try (Connection conn = pool.borrow()) {
+            conn.setAutoCommit(false);
+            Deque<Runnable> undo = new ArrayDeque<>();
+            currentTransaction.set(conn);
+            undoLog.set(undo);
+            try {
+                T result = work.execute();
+                conn.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                while (!undo.isEmpty()) {
+                    undo.pop().run();
+                }
+                conn.rollback();
+                if (e instanceof RuntimeException re) throw re;
+                throw new RuntimeException("Transaction rolled back: " + e.getMessage(), e);
+            } finally {
+                currentTransaction.remove();
+                undoLog.remove();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Transaction failed: " + e.getMessage(), e);
+        }
+    }
+
+    public boolean isInTransaction() {
+        return currentTransaction.get() != null;
+    }
+
+    /**
+     * Registers how to take back an in-memory change that belongs to the current unit of work;
+     * run in reverse order if it rolls back. A no-op outside a unit (the write is already committed).
+     */
+    public void onRollback(Runnable undo) {
+        Deque<Runnable> log = undoLog.get();
+        if (log != null) log.push(undo);
+    }
+
+    /**
+     * DAOs log and swallow their SQL errors. Inside a unit of work that would commit a
+     * half-applied operation, so the error is rethrown there to force a rollback.
+     */
+    public void rethrowIfInTransaction(SQLException e) {
+        if (isInTransaction()) {
+            throw new RuntimeException("Database error: " + e.getMessage(), e);
+        }
+    }
+
+    public ConnectionPool.PoolStats getPoolStats() {
+        return pool.getStats();
+    }
+
+    public static void shutdown() {
+        // Sequenced rows and the final checkpoint go out while the pool is still open. Their
+        // threads still call getInstance(), so the class lock is only taken for the pool.
+        StandingOrderEngine.shutdown();
+        LedgerSequencer.shutdown();
+        JournalCheckpoint.shutdown();
+        LedgerJournal.shutdown();
+        synchronized (DatabaseConnection.class) {
+            if (instance != null) {
+                instance.pool.close();
+                instance = null;
+            }
+        }
+    }
+
+    /**
+     * Streams every row of a query to the sink as it is read, without building a list.
+     * H2 runs the query lazily and hands rows over fetchSize at a time, so memory stays flat
+     * however large the table is and the first rows reach the sink immediately.
+     */
+    public <T> void stream(String sql, int fetchSize, RowMapper<T> mapper, Consumer<? super T> sink) throws SQLException {
+        try (Connection conn = getConnection()) {
+            setLazyQueryExecution(conn, true);
+            try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(fetchSize);
+                try (ResultSet rs = stmt.executeQuery(sql)) {
+                    while (rs.next()) {
+                        sink.accept(mapper.map(rs));
+                    }
+                }
+            } finally {
+                setLazyQueryExecution(conn, false);
+            }
+        }
+    }
+
+    private static void setLazyQueryExecution(Connection conn, boolean lazy) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SET LAZY_QUERY_EXECUTION " + lazy);
+        }
+    }
+
+    private static Connection nonClosing(Connection target) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("close")) return null;
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    @FunctionalInterface
+    public interface TransactionalWork<T> {
+        T execute() throws SQLException;
+    }
+
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
     }
 
     private void initializeDatabase() throws SQLException {
-        String createUsers = "CREATE TABLE IF NOT EXISTS Users (" +
-                "id VARCHAR(255) PRIMARY KEY, " +
-                "username VARCHAR(255), " +
-                "password VARCHAR(255), " +
-                "role VARCHAR(50)" +
-                ")";
-        String createAccounts = "CREATE TABLE IF NOT EXISTS Accounts (" +
-                "accountId VARCHAR(255) PRIMARY KEY, " +
-                "accountNumber VARCHAR(255), " +
-                "balance DOUBLE, " +
-                "creationDate TIMESTAMP, " +
-                "ownerId VARCHAR(255), " +
-                "state VARCHAR(50), " +
-                "type VARCHAR(50), " +
-                "loanAmount DOUBLE NULL" +
-                ")";
-        String createTransactions = "CREATE TABLE IF NOT EXISTS Transactions (" +
-                "transactionId VARCHAR(255) PRIMARY KEY, " +
-                "type VARCHAR(50), " +
-                "amount DOUBLE, " +
-                "timestamp TIMESTAMP, " +
-                "fromAccount VARCHAR(255), " +
-                "toAccount VARCHAR(255), " +
-                "status VARCHAR(50), " +
-                "description VARCHAR(255)" +
-                ")";
-
-        connection.createStatement().execute(createUsers);
-        connection.createStatement().execute(createAccounts);
-        connection.createStatement().execute(createTransactions);
+        // Tables and indexes are created/upgraded by versioned migrations
+        new SchemaMigrator(this).migrate();
 
         // === SAFE INSERTION OF DEFAULT USERS (only if not exist) ===
         String mergeDefaultUsers = """
@@ -69,6 +213,9 @@ public class DatabaseConnection {
         ('default-admin-001', 'admin', 'adminpass', 'Admin')
         """;
 
-        connection.createStatement().execute(mergeDefaultUsers);
+        try (Connection connection = getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute(mergeDefaultUsers);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,149 @@
+package com.bankingSystem.Database;
+
+import com.bankingSystem.Account.Account;
+import com.bankingSystem.Account.statePattern.AccountState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Accounts in a ConcurrentHashMap keyed by account number, plus an owner index.
+ * The stored Account object is the one handed out, so like AccountCache there is a single
+ * instance per account.
+ */
+public class InMemoryAccountRepository implements AccountRepository {
+    private final InMemoryStorageEngine engine;
+    private final Map<String, Account> accounts = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> numbersByOwner = new ConcurrentHashMap<>();
+    private final Map<String, String> indexedOwner = new ConcurrentHashMap<>(); // number -> owner in the index
+    private final Map<String, AtomicLong> numberSequences = new ConcurrentHashMap<>();
+
+    InMemoryAccountRepository(InMemoryStorageEngine engine) {
+        this.engine = engine;
+    }
+
+    @Override
+    public void saveAccount(Account account) {
+        Account previous = accounts.put(account.getAccountNumber(), account);
+        String previousOwner = reindexOwner(account);
+        engine.onRollback(() -> {
+            if (previous != null) accounts.put(previous.getAccountNumber(), previous);
+            else accounts.remove(account.getAccountNumber());
+            restoreOwner(account.getAccountNumber(), previousOwner);
+        });
+        account.markPersisted();
+    }
+
+    @Override
+    public void updateBalance(String accountNumber, long newBalance) {
+        Account account = accounts.get(accountNumber);
+        if (account == null) return;
+        long old = account.getBalance();
+        account.loadBalance(newBalance);
+        engine.onRollback(() -> account.loadBalance(old));
+    }
+
+    @Override
+    public void storeBalances(Map<String, Long> balances) {
+        balances.forEach(this::updateBalance);
+    }
+
+    @Override
+    public boolean updateFields(Account account, Set<Account.DirtyField> fields) {
+        Account stored = accounts.get(account.getAccountNumber());
+        if (stored != account) {
+            // A different instance than the stored one: store its current values
+            saveAccount(account);
+            return true;
+        }
+        if (fields.contains(Account.DirtyField.OWNER)) {
+            String previousOwner = reindexOwner(account);
+            engine.onRollback(() -> restoreOwner(account.getAccountNumber(), previousOwner));
+        }
+        return true;
+    }
+
+    @Override
+    public Long loadBalance(String accountNumber) {
+        Account account = accounts.get(accountNumber);
+        return account != null ? account.getBalance() : null;
+    }
+
+    @Override
+    public void deleteAccount(String accountNumber) {
+        Account removed = accounts.remove(accountNumber);
+        if (removed == null) return;
+        String previousOwner = indexedOwner.remove(accountNumber);
+        if (previousOwner != null) numbersByOwner.getOrDefault(previousOwner, Set.of()).remove(accountNumber);
+        engine.onRollback(() -> {
+            accounts.put(accountNumber, removed);
+            restoreOwner(accountNumber, previousOwner);
+        });
+    }
+
+    @Override
+    public void updateAccountState(String accountNumber, String newState) {
+        Account account = accounts.get(accountNumber);
+        if (account == null) return;
+        AccountState old = account.state;
+        account.state = AccountDAO.stateFor(newState);
+        engine.onRollback(() -> account.state = old);
+    }
+
+    @Override
+    public Account loadAccount(String accountNumber) {
+        return accounts.get(accountNumber);
+    }
+
+    @Override
+    public List<Account> getAllAccounts() {
+        return new ArrayList<>(accounts.values());
+    }
+
+    @Override
+    public void streamAllAccounts(Consumer<? super Account> sink) {
+        accounts.values().forEach(sink);
+    }
+
+    @Override
+    public List<Account> getAccountsByOwner(String ownerId) {
+        List<Account> result = new ArrayList<>();
+        for (String number : numbersByOwner.getOrDefault(ownerId, Set.of())) {
+            Account account = accounts.get(number);
+            if (account != null) result.add(account);
+        }
+        return result;
+    }
+
+    @Override
+    public long reserveAccountNumbers(String prefix, int count) {
+        // Like a database sequence: not undone on rollback
+        return numberSequences.computeIfAbsent(prefix, p -> new AtomicLong(1)).getAndAdd(count);
+    }
+
+    /**
+     * Points the owner index at the account's current owner; returns the owner it had before.
+     */
+    private String reindexOwner(Account account) {
+        String number = account.getAccountNumber();
+        String previousOwner = indexedOwner.put(number, account.getOwnerId());
+        if (previousOwner != null && !previousOwner.equals(account.getOwnerId())) {
+            numbersByOwner.getOrDefault(previousOwner, Set.of()).remove(number);
+        }
+        numbersByOwner.computeIfAbsent(account.getOwnerId(), o -> ConcurrentHashMap.newKeySet()).add(number);
+        return previousOwner;
+    }
+
+    private void restoreOwner(String number, String previousOwner) {
+        String current = previousOwner != null ? indexedOwner.put(number, previousOwner) : indexedOwner.remove(number);
+        if (current != null) numbersByOwner.getOrDefault(current, Set.of()).remove(number);
+        if (previousOwner != null) {
+            numbersByOwner.computeIfAbsent(previousOwner, o -> ConcurrentHashMap.newKeySet()).add(number);
+        }
+    }
+}
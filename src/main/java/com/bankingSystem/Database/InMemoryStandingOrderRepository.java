@@ -0,0 +1,100 @@
+package com.bankingSystem.Database;
+
+import com.bankingSystem.Transaction.StandingOrder;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Standing orders in a ConcurrentHashMap, plus a skip list of the active ones ordered by
+ * (nextDue, orderId) that plays the part of the due index. Stored orders are copies, so like
+ * a table they only change through updateStandingOrders().
+ */
+public class InMemoryStandingOrderRepository implements StandingOrderRepository {
+    private record DueKey(long nextDue, String orderId) {
+    }
+
+    private static final Comparator<DueKey> DUE_ORDER =
+            Comparator.comparingLong(DueKey::nextDue).thenComparing(DueKey::orderId);
+
+    private final InMemoryStorageEngine engine;
+    private final Map<String, StandingOrder> byId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<DueKey> due = new ConcurrentSkipListSet<>(DUE_ORDER);
+
+    InMemoryStandingOrderRepository(InMemoryStorageEngine engine) {
+        this.engine = engine;
+    }
+
+    @Override
+    public void saveStandingOrder(StandingOrder order) {
+        StandingOrder previous = store(order.copy());
+        engine.onRollback(() -> restore(order.getOrderId(), previous));
+    }
+
+    @Override
+    public StandingOrder loadStandingOrder(String orderId) {
+        StandingOrder stored = byId.get(orderId);
+        return stored != null ? stored.copy() : null;
+    }
+
+    @Override
+    public List<StandingOrder> loadStandingOrdersForAccount(String accountNumber) {
+        List<StandingOrder> orders = new ArrayList<>();
+        for (StandingOrder order : byId.values()) {
+            if (accountNumber.equals(order.getFromAccount()) || accountNumber.equals(order.getToAccount())) {
+                orders.add(order.copy());
+            }
+        }
+        orders.sort(Comparator.comparingLong(StandingOrder::getNextDue));
+        return orders;
+    }
+
+    @Override
+    public List<StandingOrder> loadDueStandingOrders(long dueBefore, long afterDue, String afterId, int limit) {
+        List<StandingOrder> orders = new ArrayList<>();
+        for (DueKey key : due.tailSet(new DueKey(afterDue, afterId), false)) {
+            if (key.nextDue() >= dueBefore || orders.size() == limit) break;
+            StandingOrder order = byId.get(key.orderId());
+            if (order != null) orders.add(order.copy());
+        }
+        return orders;
+    }
+
+    @Override
+    public void updateStandingOrders(List<StandingOrder> orders) {
+        for (StandingOrder order : orders) {
+            if (!byId.containsKey(order.getOrderId())) continue;
+            StandingOrder previous = store(order.copy());
+            engine.onRollback(() -> restore(order.getOrderId(), previous));
+        }
+    }
+
+    @Override
+    public boolean cancelStandingOrder(String orderId) {
+        StandingOrder stored = byId.get(orderId);
+        if (stored == null || !stored.isActive()) return false;
+        StandingOrder cancelled = stored.copy();
+        cancelled.cancel();
+        StandingOrder previous = store(cancelled);
+        engine.onRollback(() -> restore(orderId, previous));
+        return true;
+    }
+
+    // Replaces the stored copy and keeps the due index in step; returns the copy it replaced
+    private StandingOrder store(StandingOrder order) {
+        StandingOrder previous = byId.put(order.getOrderId(), order);
+        if (previous != null) due.remove(new DueKey(previous.getNextDue(), previous.getOrderId()));
+        if (order.isActive()) due.add(new DueKey(order.getNextDue(), order.getOrderId()));
+        return previous;
+    }
+
+    private void restore(String orderId, StandingOrder previous) {
+        StandingOrder current = previous != null ? byId.put(orderId, previous) : byId.remove(orderId);
+        if (current != null) due.remove(new DueKey(current.getNextDue(), orderId));
+        if (previous != null && previous.isActive()) due.add(new DueKey(previous.getNextDue(), orderId));
+    }
+}
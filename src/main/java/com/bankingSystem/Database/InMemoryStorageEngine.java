@@ -0,0 +1,95 @@
+package com.bankingSystem.Database;
+
+import com.bankingSystem.user.Admin;
+import com.bankingSystem.user.Customer;
+
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Storage on concurrent in-memory maps, with no I/O on the hot path. Nothing is durable:
+ * accounts, users and history are lost when the process exits, so money movements are not
+ * written to the ledger journal either (there would be nothing to replay them into).
+ *
+ * Units of work keep a per-thread undo log: every write registers how to take itself back,
+ * and if the work throws the log is run in reverse, so a failed transfer leaves nothing behind.
+ */
+public class InMemoryStorageEngine implements StorageEngine {
+    private final ThreadLocal<Deque<Runnable>> undoLog = new ThreadLocal<>();
+    private final InMemoryAccountRepository accounts = new InMemoryAccountRepository(this);
+    private final InMemoryTransactionRepository transactions = new InMemoryTransactionRepository(this);
+    private final InMemoryUserRepository users = new InMemoryUserRepository(this);
+    private final InMemoryStandingOrderRepository standingOrders = new InMemoryStandingOrderRepository(this);
+
+    private InMemoryStorageEngine() {
+    }
+
+    public static InMemoryStorageEngine create() {
+        InMemoryStorageEngine engine = new InMemoryStorageEngine();
+        // Same default users the H2 schema starts with
+        engine.users.saveUser(new Customer("default-customer-001", "customer1", "pass123"));
+        engine.users.saveUser(new Admin("default-admin-001", "admin", "adminpass"));
+        return engine;
+    }
+
+    @Override
+    public AccountRepository accounts() {
+        return accounts;
+    }
+
+    @Override
+    public TransactionRepository transactions() {
+        return transactions;
+    }
+
+    @Override
+    public UserRepository users() {
+        return users;
+    }
+
+    @Override
+    public StandingOrderRepository standingOrders() {
+        return standingOrders;
+    }
+
+    @Override
+    public <T> T inTransaction(DatabaseConnection.TransactionalWork<T> work) {
+        if (undoLog.get() != null) {
+            return execute(work);
+        }
+        Deque<Runnable> undo = new ArrayDeque<>();
+        undoLog.set(undo);
+        try {
+            return execute(work);
+        } catch (RuntimeException e) {
+            while (!undo.isEmpty()) {
+                undo.pop().run();
+            }
+            throw e;
+        } finally {
+            undoLog.remove();
+        }
+    }
+
+    @Override
+    public boolean isPersistent() {
+        return false;
+    }
+
+    /**
+     * Called by the repositories after a write; a no-op outside a unit of work.
+     */
+    void onRollback(Runnable undo) {
+        Deque<Runnable> log = undoLog.get();
+        if (log != null) log.push(undo);
+    }
+
+    private static <T> T execute(DatabaseConnection.TransactionalWork<T> work) {
+        try {
+            return work.execute();
+        } catch (SQLException e) {
+            throw new RuntimeException("Transaction rolled back: " + e.getMessage(), e);
+        }
+    }
+}
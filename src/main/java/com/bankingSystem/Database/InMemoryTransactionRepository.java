@@ -0,0 +1,171 @@
+package com.bankingSystem.Database;
+
+import com.bankingSystem.Transaction.Transaction;
+import com.bankingSystem.Transaction.TransactionPage;
+import com.bankingSystem.Transaction.TransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+/**
+ * Append-only in-memory ledger. Records are kept in lock-free skip lists ordered by
+ * (timestamp, transactionId), one for the whole ledger and one per account, so history pages
+ * are a seek plus a short walk, the same as the keyset query on H2.
+ */
+public class InMemoryTransactionRepository implements TransactionRepository {
+    private static final Comparator<TransactionPage.Cursor> ORDER =
+            Comparator.comparingLong(TransactionPage.Cursor::timestamp).thenComparing(TransactionPage.Cursor::transactionId);
+
+    private final InMemoryStorageEngine engine;
+    private final Map<String, Transaction> byId = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<TransactionPage.Cursor, Transaction> ledger = new ConcurrentSkipListMap<>(ORDER);
+    private final Map<String, ConcurrentSkipListMap<TransactionPage.Cursor, Transaction>> byAccount = new ConcurrentHashMap<>();
+    private final Map<ScopedKey, StoredKey> idempotencyKeys = new ConcurrentHashMap<>();
+
+    private record ScopedKey(String ownerId, String idempotencyKey) {
+    }
+
+    private record StoredKey(IdempotencyRecord record, LocalDateTime createdAt) {
+    }
+
+    InMemoryTransactionRepository(InMemoryStorageEngine engine) {
+        this.engine = engine;
+    }
+
+    @Override
+    public void saveTransaction(Transaction tx) {
+        TransactionPage.Cursor key = TransactionPage.Cursor.after(tx);
+        byId.put(tx.getTransactionId(), tx);
+        ledger.put(key, tx);
+        if (tx.getFromAccount() != null) historyOf(tx.getFromAccount()).put(key, tx);
+        if (tx.getToAccount() != null) historyOf(tx.getToAccount()).put(key, tx);
+        engine.onRollback(() -> {
+            byId.remove(tx.getTransactionId());
+            ledger.remove(key);
+            if (tx.getFromAccount() != null) historyOf(tx.getFromAccount()).remove(key);
+            if (tx.getToAccount() != null) historyOf(tx.getToAccount()).remove(key);
+        });
+    }
+
+    @Override
+    public void saveTransactions(List<Transaction> transactions) {
+        transactions.forEach(this::saveTransaction);
+    }
+
+    @Override
+    public List<Transaction> loadTransactions(String accountNumber) {
+        NavigableMap<TransactionPage.Cursor, Transaction> history = byAccount.get(accountNumber);
+        return history != null ? new ArrayList<>(history.descendingMap().values()) : new ArrayList<>();
+    }
+
+    @Override
+    public TransactionPage loadTransactionsPage(String accountNumber, TransactionPage.Cursor after, int pageSize) {
+        if (pageSize <= 0) throw new IllegalArgumentException("Page size must be positive");
+        int limit = Math.min(pageSize, MAX_PAGE_SIZE);
+        NavigableMap<TransactionPage.Cursor, Transaction> history = byAccount.get(accountNumber);
+        if (history == null) return new TransactionPage(new ArrayList<>(), null);
+
+        NavigableMap<TransactionPage.Cursor, Transaction> older = after == null ? history : history.headMap(after, false);
+        List<Transaction> page = new ArrayList<>(limit);
+        for (Transaction tx : older.descendingMap().values()) {
+            if (page.size() == limit) {
+                return new TransactionPage(page, TransactionPage.Cursor.after(page.get(page.size() - 1)));
+            }
+            page.add(tx);
+        }
+        return new TransactionPage(page, null);
+    }
+
+    @Override
+    public List<Transaction> loadAllTransactions() {
+        return new ArrayList<>(ledger.descendingMap().values());
+    }
+
+    @Override
+    public void streamAllTransactions(Consumer<? super Transaction> sink) {
+        ledger.descendingMap().values().forEach(sink);
+    }
+
+    @Override
+    public List<Transaction> loadPendingTransactions() {
+        List<Transaction> pending = new ArrayList<>();
+        for (Transaction tx : ledger.values()) {
+            if (tx.getStatus() == TransactionDAO.PENDING_STATUS) pending.add(tx);
+        }
+        pending.sort(Comparator.comparingLong(Transaction::getAmount).reversed()
+                .thenComparingLong(Transaction::getTimestamp));
+        return pending;
+    }
+
+    @Override
+    public void updateTransactionStatus(String transactionId, TransactionStatus newStatus, String note) {
+        Transaction tx = byId.get(transactionId);
+        if (tx == null) return;
+        TransactionStatus old = tx.getStatus();
+        String oldNote = tx.getNote();
+        tx.setStatus(newStatus, note);
+        engine.onRollback(() -> tx.setStatus(old, oldNote));
+    }
+
+    @Override
+    public void updateTransactionStatuses(List<Transaction> transactions) {
+        for (Transaction tx : transactions) {
+            updateTransactionStatus(tx.getTransactionId(), tx.getStatus(), tx.getNote());
+        }
+    }
+
+    @Override
+    public List<String> transitionStatuses(List<String> transactionIds, TransactionStatus expected, TransactionStatus newStatus) {
+        List<String> moved = new ArrayList<>(transactionIds.size());
+        for (String transactionId : transactionIds) {
+            Transaction tx = byId.get(transactionId);
+            if (tx == null) continue;
+            synchronized (tx) {
+                if (tx.getStatus() != expected) continue;
+                updateTransactionStatus(transactionId, newStatus, null);
+            }
+            moved.add(transactionId);
+        }
+        return moved;
+    }
+
+    @Override
+    public Transaction loadTransactionById(String transactionId) {
+        return byId.get(transactionId);
+    }
+
+    @Override
+    public void saveIdempotencyKey(String ownerId, String idempotencyKey, String fingerprint, String transactionId) {
+        ScopedKey key = new ScopedKey(ownerId, idempotencyKey);
+        StoredKey stored = new StoredKey(new IdempotencyRecord(transactionId, fingerprint), LocalDateTime.now());
+        // putIfAbsent plays the part of the table's primary key
+        if (idempotencyKeys.putIfAbsent(key, stored) != null) {
+            throw new IllegalStateException("Duplicate idempotency key: " + idempotencyKey);
+        }
+        engine.onRollback(() -> idempotencyKeys.remove(key, stored));
+    }
+
+    @Override
+    public IdempotencyRecord findIdempotencyKey(String ownerId, String idempotencyKey, LocalDateTime notBefore) {
+        StoredKey stored = idempotencyKeys.get(new ScopedKey(ownerId, idempotencyKey));
+        return stored != null && !stored.createdAt().isBefore(notBefore) ? stored.record() : null;
+    }
+
+    @Override
+    public int deleteIdempotencyKeysBefore(LocalDateTime cutoff) {
+        int before = idempotencyKeys.size();
+        idempotencyKeys.values().removeIf(record -> record.createdAt().isBefore(cutoff));
+        return before - idempotencyKeys.size();
+    }
+
+    private ConcurrentSkipListMap<TransactionPage.Cursor, Transaction> historyOf(String accountNumber) {
+        return byAccount.computeIfAbsent(accountNumber, a -> new ConcurrentSkipListMap<>(ORDER));
+    }
+}
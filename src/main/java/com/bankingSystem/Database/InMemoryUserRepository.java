@@ -0,0 +1,73 @@
+package com.bankingSystem.Database;
+
+import com.bankingSystem.user.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Users in concurrent maps by id and by username.
+ */
+public class InMemoryUserRepository implements UserRepository {
+    private final InMemoryStorageEngine engine;
+    private final Map<String, User> byId = new ConcurrentHashMap<>();
+    private final Map<String, String> idByUsername = new ConcurrentHashMap<>();
+
+    InMemoryUserRepository(InMemoryStorageEngine engine) {
+        this.engine = engine;
+    }
+
+    @Override
+    public void saveUser(User user) {
+        User previous = byId.put(user.getUserId(), user);
+        if (previous != null) idByUsername.remove(previous.getUsername(), previous.getUserId());
+        idByUsername.put(user.getUsername(), user.getUserId());
+        engine.onRollback(() -> {
+            idByUsername.remove(user.getUsername(), user.getUserId());
+            if (previous != null) {
+                byId.put(previous.getUserId(), previous);
+                idByUsername.put(previous.getUsername(), previous.getUserId());
+            } else {
+                byId.remove(user.getUserId());
+            }
+        });
+    }
+
+    @Override
+    public User loadUser(String username) {
+        String id = idByUsername.get(username);
+        return id != null ? byId.get(id) : null;
+    }
+
+    @Override
+    public User loadUserById(String userId) {
+        return byId.get(userId);
+    }
+
+    @Override
+    public List<User> getAllUsersByRole(String roleName) {
+        List<User> users = new ArrayList<>();
+        for (User user : byId.values()) {
+            if (user.getRole().getDisplayName().equals(roleName)) users.add(user);
+        }
+        return users;
+    }
+
+    @Override
+    public List<User> getAllUsers() {
+        return new ArrayList<>(byId.values());
+    }
+
+    @Override
+    public void deleteUser(String userId) {
+        User removed = byId.remove(userId);
+        if (removed == null) return;
+        idByUsername.remove(removed.getUsername(), userId);
+        engine.onRollback(() -> {
+            byId.put(userId, removed);
+            idByUsername.put(removed.getUsername(), userId);
+        });
+    }
+}
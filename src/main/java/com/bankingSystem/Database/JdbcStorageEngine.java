@@ -0,0 +1,41 @@
+package com.bankingSystem.Database;
+
+/**
+ * The H2 backend: the existing DAOs on the pooled connection.
+ */
+public class JdbcStorageEngine implements StorageEngine {
+    private final AccountRepository accounts = new AccountDAO();
+    private final TransactionRepository transactions = new TransactionDAO();
+    private final UserRepository users = new UserDAO();
+    private final StandingOrderRepository standingOrders = new StandingOrderDAO();
+
+    @Override
+    public AccountRepository accounts() {
+        return accounts;
+    }
+
+    @Override
+    public TransactionRepository transactions() {
+        return transactions;
+    }
+
+    @Override
+    public UserRepository users() {
+        return users;
+    }
+
+    @Override
+    public StandingOrderRepository standingOrders() {
+        return standingOrders;
+    }
+
+    @Override
+    public <T> T inTransaction(DatabaseConnection.TransactionalWork<T> work) {
+        return DatabaseConnection.getInstance().inTransaction(work);
+    }
+
+    @Override
+    public boolean isPersistent() {
+        return true;
+    }
+}
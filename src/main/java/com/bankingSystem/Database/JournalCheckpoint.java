@@ -0,0 +1,210 @@
+package com.bankingSystem.Database;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Periodic checkpoints of the ledger journal (Singleton).
+ * A checkpoint records the journal sequence up to which every group is settled in the
+ * database (see LedgerJournal.settledSequence()); the database already holds their balances
+ * and states, so it is the state at that point. On startup recover() replays only the journal
+ * after the latest checkpoint and checks those balances against the database, and journal
+ * segments older than the previous checkpoint are deleted. Startup cost therefore follows
+ * recent activity, not the size of the whole history.
+ *
+ * A checkpoint is a few bytes and is written on a background thread without stopping
+ * transfers or reading the Accounts table.
+ */
+public class JournalCheckpoint {
+    private static JournalCheckpoint instance;
+
+    private static final int MAGIC = 0x434B5054; // "CKPT"
+    private static final int FORMAT_VERSION = 1;
+    private static final String FILE_PREFIX = "checkpoint-";
+    private static final String FILE_SUFFIX = ".bin";
+    private static final int KEEP_CHECKPOINTS = 2;
+    // magic int | format version int | last sequence long | taken at millis long | crc32 of the rest long
+    private static final int FILE_BYTES = 32;
+    private static final int CRC_OFFSET = 24;
+
+    private final Path directory;
+    private final long intervalSeconds;
+    private ScheduledExecutorService scheduler;
+
+    public record Checkpoint(long lastSequence, long takenAtMillis) {
+    }
+
+    JournalCheckpoint(Path directory, long intervalSeconds) {
+        this.directory = directory;
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    public static synchronized JournalCheckpoint getInstance() {
+        if (instance == null) {
+            instance = new JournalCheckpoint(
+                    Paths.get(System.getProperty("bank.checkpoint.dir", "./data/checkpoints")),
+                    Long.getLong("bank.checkpoint.intervalSeconds", 60L));
+        }
+        return instance;
+    }
+
+    /**
+     * Stops the background thread and writes a final checkpoint, so the next start replays
+     * almost nothing.
+     */
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.stop();
+            instance = null;
+        }
+    }
+
+    /**
+     * Starts taking a checkpoint every bank.checkpoint.intervalSeconds.
+     */
+    public synchronized void start() {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "journal-checkpoint");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkpointQuietly, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    private void stop() {
+        synchronized (this) {
+            if (scheduler == null) return;
+            scheduler.shutdown();
+        }
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        checkpointQuietly();
+    }
+
+    /**
+     * Replays the journal after the latest checkpoint once and checks those balances against
+     * the database (repairing them with repair set). Returns the mismatch count.
+     */
+    public int recover(AccountRepository accountDAO, boolean repair) {
+        long started = System.nanoTime();
+        Checkpoint checkpoint = loadLatest();
+        long covered = checkpoint != null ? checkpoint.lastSequence() : 0;
+        LedgerJournal.ReplayResult tail = LedgerJournal.getInstance().replayAfter(covered);
+        int mismatches = LedgerJournal.verify(accountDAO, tail, repair);
+        System.out.printf("Recovered from %s plus %d journal groups in %d ms%n",
+                checkpoint != null ? "checkpoint @" + covered : "no checkpoint",
+                tail.committedGroups(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return mismatches;
+    }
+
+    /**
+     * Writes a new checkpoint and drops journal segments and checkpoints it makes unnecessary.
+     * Returns the checkpoint file.
+     */
+    public synchronized Path takeCheckpoint() throws IOException {
+        LedgerJournal journal = LedgerJournal.getInstance();
+        long covered = journal.settledSequence();
+        Files.createDirectories(directory);
+        Path target = directory.resolve(String.format("%s%020d%s", FILE_PREFIX, covered, FILE_SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+
+        ByteBuffer bytes = ByteBuffer.allocate(FILE_BYTES);
+        bytes.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(covered).putLong(System.currentTimeMillis());
+        bytes.putLong(crcOf(bytes.array()));
+        bytes.flip();
+        try (FileChannel file = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (bytes.hasRemaining()) file.write(bytes);
+            file.force(true); // durable before it replaces anything
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        // Keep the previous checkpoint as a fallback; journal from there on must stay replayable
+        List<Path> checkpoints = checkpointFiles();
+        for (int i = 0; i < checkpoints.size() - KEEP_CHECKPOINTS; i++) {
+            Files.deleteIfExists(checkpoints.get(i));
+        }
+        checkpoints = checkpointFiles();
+        int segments = journal.deleteSegmentsUpTo(sequenceOf(checkpoints.get(0)));
+        if (segments > 0) {
+            System.out.println("Journal checkpoint @ " + covered + ", " + segments + " old journal segments removed");
+        }
+        return target;
+    }
+
+    /**
+     * The newest checkpoint that reads back with a valid checksum, or null if there is none.
+     */
+    public Checkpoint loadLatest() {
+        List<Path> checkpoints = checkpointFiles();
+        for (int i = checkpoints.size() - 1; i >= 0; i--) {
+            try {
+                return read(checkpoints.get(i));
+            } catch (IOException e) {
+                System.err.println("Skipping unreadable checkpoint " + checkpoints.get(i) + ": " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    private Checkpoint read(Path file) throws IOException {
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (bytes.limit() != FILE_BYTES) throw new IOException("Truncated checkpoint");
+        if (bytes.getInt(0) != MAGIC || bytes.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Not a journal checkpoint");
+        }
+        if (bytes.getLong(CRC_OFFSET) != crcOf(bytes.array())) {
+            throw new IOException("Checksum mismatch");
+        }
+        return new Checkpoint(bytes.getLong(8), bytes.getLong(16));
+    }
+
+    private static long crcOf(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, CRC_OFFSET);
+        return crc.getValue();
+    }
+
+    private void checkpointQuietly() {
+        try {
+            takeCheckpoint();
+        } catch (Exception e) {
+            System.err.println("Error writing journal checkpoint: " + e.getMessage());
+        }
+    }
+
+    private List<Path> checkpointFiles() {
+        if (!Files.isDirectory(directory)) return List.of();
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(FILE_PREFIX)
+                            && p.getFileName().toString().endsWith(FILE_SUFFIX))
+                    .sorted(Comparator.comparing(Path::getFileName))
+                    .toList();
+        } catch (IOException e) {
+            System.err.println("Error listing checkpoints: " + e.getMessage());
+            return List.of();
+        }
+    }
+
+    private static long sequenceOf(Path checkpointFile) {
+        String name = checkpointFile.getFileName().toString();
+        return Long.parseLong(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+    }
+}
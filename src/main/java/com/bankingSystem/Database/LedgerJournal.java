@@ -0,0 +1,457 @@
+package com.bankingSystem.Database;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only, memory-mapped journal of balance mutations (Singleton).
+ * Every committed money movement is written here as a group of fixed-size records (one per
+ * account touched) holding the delta and the balance after it. Records are appended
+ * sequentially to segment files of a fixed size; a full segment is forced to disk and a new
+ * one is started. Each record carries a CRC32, so a record torn by a crash is detected on
+ * startup and everything after it is ignored.
+ *
+ * TransactionService appends a group inside the JDBC transaction, just before commit. Once the
+ * database commit succeeded a COMMIT record confirms the group; if the commit fails an ABORT
+ * record cancels it. Appending only writes the mapped memory, which the OS keeps even if the
+ * process dies, so the monitor is held for microseconds. The force that also survives a
+ * machine crash runs later in awaitDurable(), after the caller released its account locks and
+ * committed, and one force covers every thread waiting at that moment (group commit).
+ * On startup replay() rebuilds the last confirmed balance of every journaled account, and
+ * verify() compares it with Accounts.balance. A group with neither record (the
+ * process died around the commit) may or may not be in the database, so it is never used to
+ * repair a balance; a stored balance equal to its result is accepted as committed.
+ * LedgerSequencer follows the same protocol, with its persistence consumer's commit in place of
+ * the unit's.
+ * Once a checkpoint covers a prefix of the journal, the segments holding only that prefix can
+ * be deleted (see JournalCheckpoint), so replay work stays proportional to recent activity.
+ */
+public class LedgerJournal implements AutoCloseable {
+    private static LedgerJournal instance;
+
+    static final int RECORD_SIZE = 128;
+    private static final int MAGIC = 0x4C444752; // "LDGR"
+    private static final byte TYPE_MUTATION = 1;
+    private static final byte TYPE_ABORT = 2;
+    private static final byte TYPE_COMMIT = 3;
+    private static final byte FLAG_END_OF_GROUP = 1;
+    private static final int ACCOUNT_OFFSET = 48;
+    private static final int MAX_ACCOUNT_BYTES = 72;
+    private static final int CRC_OFFSET = ACCOUNT_OFFSET + MAX_ACCOUNT_BYTES;
+    private static final String SEGMENT_PREFIX = "ledger-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    // Record layout (128 bytes, big-endian):
+    //  0 magic int | 4 type byte (mutation, abort, commit) | 5 flags byte | 6 account length short | 8 sequence long
+    // 16 group sequence long | 24 epoch millis long | 32 delta long | 40 balance after long
+    // 48 account number (UTF-8, 72 bytes) | 120 crc32 int | 124 unused
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final boolean syncOnAppend;
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long nextSequence = 1;
+    private final Object forceLock = new Object(); // one force at a time; waiters reuse its result
+    private volatile long durableSequence;         // every record up to here is on disk
+    private final TreeSet<Long> inFlightGroups = new TreeSet<>(); // appended, commit not yet known
+    private boolean closed;
+
+    /**
+     * One account's part of a money movement: the change and the resulting balance.
+     */
+    public record Mutation(String accountNumber, long delta, long balanceAfter) {
+    }
+
+    /**
+     * What replay() found: the latest confirmed balance of each account, the balances of the
+     * unconfirmed groups after it, and the last sequence.
+     */
+    public record ReplayResult(Map<String, Long> balances, Map<String, Set<Long>> unconfirmedBalances,
+                               long lastSequence, int committedGroups, int abortedGroups,
+                               int unconfirmedGroups, int incompleteGroups) {
+    }
+
+    LedgerJournal(Path directory, long segmentBytes, boolean syncOnAppend) {
+        this.directory = directory;
+        this.recordsPerSegment = (int) Math.max(1, Math.min(segmentBytes, Integer.MAX_VALUE) / RECORD_SIZE);
+        this.syncOnAppend = syncOnAppend;
+        try {
+            Files.createDirectories(directory);
+            openTail();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open ledger journal in " + directory, e);
+        }
+    }
+
+    public static synchronized LedgerJournal getInstance() {
+        if (instance == null) {
+            instance = new LedgerJournal(
+                    Paths.get(System.getProperty("bank.journal.dir", "./data/journal")),
+                    Long.getLong("bank.journal.segmentBytes", 16L * 1024 * 1024),
+                    Boolean.parseBoolean(System.getProperty("bank.journal.sync", "true")));
+        }
+        return instance;
+    }
+
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    /**
+     * Appends the mutations as one group and returns the group's sequence number (the
+     * sequence of its first record). Nothing is forced; see awaitDurable().
+     */
+    public synchronized long appendGroup(List<Mutation> mutations) {
+        if (mutations.isEmpty()) throw new IllegalArgumentException("Empty journal group");
+        ensureOpen();
+        long groupSequence = nextSequence;
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < mutations.size(); i++) {
+            if (!segment.hasRemaining()) rollSegment();
+            Mutation m = mutations.get(i);
+            byte flags = i == mutations.size() - 1 ? FLAG_END_OF_GROUP : 0;
+            writeRecord(TYPE_MUTATION, flags, groupSequence, now, m.accountNumber(), m.delta(), m.balanceAfter());
+        }
+        inFlightGroups.add(groupSequence);
+        return groupSequence;
+    }
+
+    /**
+     * Confirms a group whose database commit succeeded and returns the sequence of the COMMIT
+     * record, for awaitDurable().
+     */
+    public synchronized long groupCommitted(long groupSequence) {
+        return appendMarker(TYPE_COMMIT, groupSequence);
+    }
+
+    /**
+     * Cancels a group whose database commit failed, so replay skips it. Not forced: if the
+     * record is lost the group reads as unconfirmed, which verify() already allows for.
+     */
+    public synchronized void appendAbort(long groupSequence) {
+        appendMarker(TYPE_ABORT, groupSequence);
+    }
+
+    private long appendMarker(byte type, long groupSequence) {
+        ensureOpen();
+        if (!segment.hasRemaining()) rollSegment();
+        writeRecord(type, FLAG_END_OF_GROUP, groupSequence, System.currentTimeMillis(), "", 0, 0);
+        inFlightGroups.remove(groupSequence);
+        return nextSequence - 1;
+    }
+
+    /**
+     * Returns once the record with the given sequence is on disk. With bank.journal.sync
+     * (default) that takes a force, unless one that covers it already ran; otherwise the OS
+     * writes the records back on its own and this returns at once. Call it after releasing
+     * account locks and the database transaction, so they are not held across the disk write.
+     */
+    public void awaitDurable(long sequence) {
+        if (syncOnAppend) forceThrough(sequence);
+    }
+
+    /**
+     * Forces everything appended so far to disk.
+     */
+    public void force() {
+        forceThrough(lastSequence());
+    }
+
+    // Group commit: the first waiter forces everything appended so far, outside the monitor so
+    // appends go on meanwhile; the waiters queued behind it usually find themselves covered
+    private void forceThrough(long sequence) {
+        if (sequence <= durableSequence) return;
+        synchronized (forceLock) {
+            if (sequence <= durableSequence) return;
+            MappedByteBuffer target;
+            int end;
+            long through;
+            synchronized (this) {
+                ensureOpen();
+                target = segment;
+                end = segment.position();
+                through = nextSequence - 1;
+            }
+            // Earlier segments were forced when they rolled over. A mapping stays valid after
+            // its channel is closed, so a roll in the meantime does not matter.
+            target.force(0, end);
+            durableSequence = through;
+        }
+    }
+
+    public synchronized long lastSequence() {
+        return nextSequence - 1;
+    }
+
+    /**
+     * The highest sequence whose effects are already settled in the database: every group at
+     * or below it has committed or aborted. A checkpoint at
+     * this sequence only needs the groups after it replayed.
+     */
+    public synchronized long settledSequence() {
+        return inFlightGroups.isEmpty() ? nextSequence - 1 : inFlightGroups.first() - 1;
+    }
+
+    /**
+     * Deletes whole segments whose records all have a sequence at or below the given one.
+     * The segment being written to is always kept.
+     */
+    public synchronized int deleteSegmentsUpTo(long sequence) {
+        List<Path> files = segmentFiles();
+        int deleted = 0;
+        for (int i = 0; i + 1 < files.size(); i++) {
+            // A segment ends right before the next one starts
+            if (sequenceOf(files.get(i + 1)) - 1 > sequence) break;
+            try {
+                Files.deleteIfExists(files.get(i));
+                deleted++;
+            } catch (IOException e) {
+                System.err.println("Error deleting journal segment " + files.get(i) + ": " + e.getMessage());
+                break;
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * Reads every segment from the start and returns the balance after the last confirmed
+     * group for each account. Incomplete groups (torn by a crash) and aborted groups are skipped;
+     * complete groups without a COMMIT record are returned separately as unconfirmed.
+     */
+    public synchronized ReplayResult replay() {
+        return replayAfter(0);
+    }
+
+    /**
+     * Like replay() but only applies groups with a sequence greater than afterSequence.
+     */
+    public synchronized ReplayResult replayAfter(long afterSequence) {
+        ensureOpen();
+        Map<Long, List<Mutation>> complete = new HashMap<>();
+        List<Long> order = new ArrayList<>();
+        Set<Long> aborted = new HashSet<>();
+        Set<Long> confirmed = new HashSet<>();
+        Map<Long, List<Mutation>> open = new HashMap<>();
+        long last = 0;
+
+        List<Path> files = segmentFiles();
+        for (int i = 0; i < files.size(); i++) {
+            // Segments that end at or before afterSequence cannot hold anything to apply
+            if (i + 1 < files.size() && sequenceOf(files.get(i + 1)) - 1 <= afterSequence) continue;
+            Path file = files.get(i);
+            try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+                ByteBuffer buf = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+                byte[] record = new byte[RECORD_SIZE];
+                while (buf.remaining() >= RECORD_SIZE) {
+                    buf.get(record);
+                    ByteBuffer r = ByteBuffer.wrap(record);
+                    if (!isValid(r)) break; // end of written data, or a torn record
+                    long sequence = r.getLong(8);
+                    long group = r.getLong(16);
+                    last = Math.max(last, sequence);
+                    if (r.get(4) == TYPE_ABORT) {
+                        aborted.add(group);
+                        continue;
+                    }
+                    if (r.get(4) == TYPE_COMMIT) {
+                        confirmed.add(group);
+                        continue;
+                    }
+                    List<Mutation> members = open.computeIfAbsent(group, g -> new ArrayList<>());
+                    members.add(new Mutation(readAccount(r), r.getLong(32), r.getLong(40)));
+                    if ((r.get(5) & FLAG_END_OF_GROUP) != 0) {
+                        complete.put(group, open.remove(group));
+                        order.add(group);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read journal segment " + file, e);
+            }
+        }
+
+        Map<String, Long> balances = new HashMap<>();
+        Map<String, Set<Long>> unconfirmed = new HashMap<>();
+        int committed = 0;
+        int unknown = 0;
+        for (long group : order) {
+            if (group <= afterSequence || aborted.contains(group)) continue;
+            boolean isConfirmed = confirmed.contains(group);
+            if (isConfirmed) committed++;
+            else unknown++;
+            for (Mutation m : complete.get(group)) {
+                if (isConfirmed) {
+                    balances.put(m.accountNumber(), m.balanceAfter());
+                    unconfirmed.remove(m.accountNumber()); // only what follows the confirmed balance matters
+                } else {
+                    unconfirmed.computeIfAbsent(m.accountNumber(), a -> new HashSet<>()).add(m.balanceAfter());
+                }
+            }
+        }
+        return new ReplayResult(balances, unconfirmed, last, committed, aborted.size(), unknown, open.size());
+    }
+
+    /**
+     * Compares the balances journaled after afterSequence with Accounts.balance. A stored
+     * balance that equals the result of an unconfirmed group is accepted (its commit went
+     * through, only the COMMIT record was lost). Other mismatches are reported; with repair set
+     * the stored balance is overwritten with the last confirmed one. Returns the mismatch count.
+     */
+    public int verify(AccountRepository accountDAO, long afterSequence, boolean repair) {
+        return verify(accountDAO, replayAfter(afterSequence), repair);
+    }
+
+    /**
+     * verify() for a replay the caller already has.
+     */
+    public static int verify(AccountRepository accountDAO, ReplayResult result, boolean repair) {
+        int mismatches = 0;
+        for (Map.Entry<String, Long> entry : result.balances().entrySet()) {
+            Long stored = accountDAO.loadBalance(entry.getKey());
+            if (stored != null && stored.longValue() == entry.getValue()) continue;
+            if (stored != null && result.unconfirmedBalances().getOrDefault(entry.getKey(), Set.of()).contains(stored)) continue;
+            mismatches++;
+            System.err.println("Journal mismatch for " + entry.getKey() + ": database=" + stored
+                    + " journal=" + entry.getValue());
+            if (repair && stored != null) {
+                accountDAO.updateBalance(entry.getKey(), entry.getValue());
+            }
+        }
+        System.out.printf("Ledger journal replayed: %d groups (%d aborted, %d unconfirmed, %d incomplete), %d accounts, %d mismatches%n",
+                result.committedGroups(), result.abortedGroups(), result.unconfirmedGroups(), result.incompleteGroups(),
+                result.balances().size(), mismatches);
+        return mismatches;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            segment.force();
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Error closing ledger journal: " + e.getMessage());
+        }
+    }
+
+    // ====================== Segment handling ======================
+
+    private void openTail() throws IOException {
+        List<Path> files = segmentFiles();
+        if (files.isEmpty()) {
+            mapSegment(segmentPath(nextSequence));
+            return;
+        }
+        Path tail = files.get(files.size() - 1);
+        mapSegment(tail);
+        // Find the end of the valid data; anything after a bad record is overwritten
+        long firstSequence = sequenceOf(tail);
+        nextSequence = firstSequence;
+        while (segment.remaining() >= RECORD_SIZE) {
+            ByteBuffer r = segment.slice(segment.position(), RECORD_SIZE);
+            if (!isValid(r)) break;
+            nextSequence = r.getLong(8) + 1;
+            segment.position(segment.position() + RECORD_SIZE);
+        }
+    }
+
+    private void rollSegment() {
+        try {
+            segment.force();
+            channel.close();
+            mapSegment(segmentPath(nextSequence));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot roll ledger journal segment", e);
+        }
+    }
+
+    private void mapSegment(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+    }
+
+    private List<Path> segmentFiles() {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                            && p.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted() // the zero-padded start sequence makes name order = log order
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list journal directory " + directory, e);
+        }
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+
+    private static long sequenceOf(Path segmentFile) {
+        String name = segmentFile.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    // ====================== Records ======================
+
+    private void writeRecord(byte type, byte flags, long groupSequence, long epochMillis,
+                             String accountNumber, long delta, long balanceAfter) {
+        byte[] account = accountNumber.getBytes(StandardCharsets.UTF_8);
+        if (account.length > MAX_ACCOUNT_BYTES) {
+            throw new IllegalArgumentException("Account number too long for the journal: " + accountNumber);
+        }
+        ByteBuffer r = ByteBuffer.allocate(RECORD_SIZE);
+        r.putInt(0, MAGIC);
+        r.put(4, type);
+        r.put(5, flags);
+        r.putShort(6, (short) account.length);
+        r.putLong(8, nextSequence++);
+        r.putLong(16, groupSequence);
+        r.putLong(24, epochMillis);
+        r.putLong(32, delta);
+        r.putLong(40, balanceAfter);
+        r.put(ACCOUNT_OFFSET, account);
+        r.putInt(CRC_OFFSET, crcOf(r));
+        segment.put(r.array());
+    }
+
+    private static boolean isValid(ByteBuffer r) {
+        return r.getInt(0) == MAGIC && r.getInt(CRC_OFFSET) == crcOf(r);
+    }
+
+    private static int crcOf(ByteBuffer r) {
+        CRC32 crc = new CRC32();
+        crc.update(r.slice(0, CRC_OFFSET));
+        return (int) crc.getValue();
+    }
+
+    private static String readAccount(ByteBuffer r) {
+        byte[] account = new byte[r.getShort(6)];
+        r.get(ACCOUNT_OFFSET, account);
+        return new String(account, StandardCharsets.UTF_8);
+    }
+
+    private void ensureOpen() {
+        if (closed) throw new IllegalStateException("Ledger journal is closed");
+    }
+}
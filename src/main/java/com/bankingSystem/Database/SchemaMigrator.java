@@ -0,0 +1,302 @@
+package com.bankingSystem.Database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Versioned schema migrations, applied in order at startup.
+ * The highest applied version is recorded in SchemaVersion, so a migration that completed never
+ * runs again. To change the schema, append a new Migration to MIGRATIONS — never change what one
+ * that has already shipped does.
+ *
+ * H2 commits every DDL statement on its own, so a migration is not atomic: if one of its
+ * statements fails, the ones before it stay applied, the version is not recorded, and the whole
+ * migration runs again on the next start. Every migration must therefore be safe to re-run
+ * after stopping at any statement: use IF [NOT] EXISTS, keep updates repeatable, and guard the
+ * steps that must not run twice (scaling values, dropping the source of a copy) with onlyIf().
+ */
+public class SchemaMigrator {
+
+    record Migration(int version, String description, List<Step> steps) {
+    }
+
+    /**
+     * One statement of a migration. With onlyIf set it runs only when that query returns a row.
+     */
+    record Step(String sql, String onlyIf) {
+    }
+
+    private static final String OLD_TRANSACTION_LAYOUT = columnIs("Transactions", "type", "CHARACTER VARYING");
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Baseline tables", sql(
+                    """
+                    CREATE TABLE IF NOT EXISTS Users (
+                        id VARCHAR(255) PRIMARY KEY,
+                        username VARCHAR(255),
+                        password VARCHAR(255),
+                        role VARCHAR(50)
+                    )""",
+                    """
+                    CREATE TABLE IF NOT EXISTS Accounts (
+                        accountId VARCHAR(255) PRIMARY KEY,
+                        accountNumber VARCHAR(255),
+                        balance DOUBLE,
+                        creationDate TIMESTAMP,
+                        ownerId VARCHAR(255),
+                        state VARCHAR(50),
+                        type VARCHAR(50),
+                        loanAmount DOUBLE NULL
+                    )""",
+                    """
+                    CREATE TABLE IF NOT EXISTS Transactions (
+                        transactionId VARCHAR(255) PRIMARY KEY,
+                        type VARCHAR(50),
+                        amount DOUBLE,
+                        timestamp TIMESTAMP,
+                        fromAccount VARCHAR(255),
+                        toAccount VARCHAR(255),
+                        status VARCHAR(50),
+                        description VARCHAR(255)
+                    )""")),
+            new Migration(2, "Secondary indexes for lookups and history", sql(
+                    "CREATE INDEX IF NOT EXISTS idx_accounts_number ON Accounts(accountNumber)",
+                    "CREATE INDEX IF NOT EXISTS idx_accounts_owner ON Accounts(ownerId)",
+                    "CREATE INDEX IF NOT EXISTS idx_tx_from_time ON Transactions(fromAccount, timestamp)",
+                    "CREATE INDEX IF NOT EXISTS idx_tx_to_time ON Transactions(toAccount, timestamp)",
+                    "CREATE INDEX IF NOT EXISTS idx_tx_status ON Transactions(status)",
+                    "CREATE INDEX IF NOT EXISTS idx_tx_time ON Transactions(timestamp)",
+                    "CREATE INDEX IF NOT EXISTS idx_users_username ON Users(username)",
+                    "CREATE INDEX IF NOT EXISTS idx_users_role ON Users(role)")),
+            // Money is a long count of cents from here on (see Util.Money). The cents go to new
+            // columns in the same position and replace the old ones, so values are scaled only
+            // while the DOUBLE column still exists; a re-run never scales them twice
+            new Migration(3, "Store money as BIGINT minor units", List.of(
+                    onlyIf(columnIs("Accounts", "balance", "DOUBLE PRECISION"),
+                            "ALTER TABLE Accounts ADD COLUMN IF NOT EXISTS balanceCents BIGINT AFTER balance"),
+                    onlyIf(columnIs("Accounts", "loanAmount", "DOUBLE PRECISION"),
+                            "ALTER TABLE Accounts ADD COLUMN IF NOT EXISTS loanAmountCents BIGINT AFTER loanAmount"),
+                    onlyIf(columnIs("Accounts", "balance", "DOUBLE PRECISION"),
+                            "UPDATE Accounts SET balanceCents = ROUND(balance * 100), loanAmountCents = ROUND(loanAmount * 100)"),
+                    onlyIf(columnIs("Accounts", "balance", "DOUBLE PRECISION"),
+                            "ALTER TABLE Accounts DROP COLUMN balance, loanAmount"),
+                    onlyIf(columnExists("Accounts", "balanceCents"),
+                            "ALTER TABLE Accounts ALTER COLUMN balanceCents RENAME TO balance"),
+                    onlyIf(columnExists("Accounts", "loanAmountCents"),
+                            "ALTER TABLE Accounts ALTER COLUMN loanAmountCents RENAME TO loanAmount"),
+                    onlyIf(columnIs("Transactions", "amount", "DOUBLE PRECISION"),
+                            "ALTER TABLE Transactions ADD COLUMN IF NOT EXISTS amountCents BIGINT AFTER amount"),
+                    onlyIf(columnIs("Transactions", "amount", "DOUBLE PRECISION"),
+                            "UPDATE Transactions SET amountCents = ROUND(amount * 100)"),
+                    onlyIf(columnIs("Transactions", "amount", "DOUBLE PRECISION"),
+                            "ALTER TABLE Transactions DROP COLUMN amount"),
+                    onlyIf(columnExists("Transactions", "amountCents"),
+                            "ALTER TABLE Transactions ALTER COLUMN amountCents RENAME TO amount"))),
+            // Client retries: the primary key makes a second use of the same key fail its unit of work
+            new Migration(4, "Idempotency keys", sql(
+                    """
+                    CREATE TABLE IF NOT EXISTS IdempotencyKeys (
+                        idempotencyKey VARCHAR(255) PRIMARY KEY,
+                        transactionId VARCHAR(255) NOT NULL,
+                        createdAt TIMESTAMP NOT NULL
+                    )""",
+                    "CREATE INDEX IF NOT EXISTS idx_idempotency_created ON IdempotencyKeys(createdAt)")),
+            // Older builds wrote free-text pending statuses; one exact value lets the index do the lookup
+            new Migration(5, "Normalise pending status and index the approval queue", sql(
+                    """
+                    UPDATE Transactions SET status = 'PENDING_MANAGER_APPROVAL'
+                    WHERE status <> 'PENDING_MANAGER_APPROVAL' AND (status LIKE '%PENDING%' OR status LIKE '%Requires%')""",
+                    "CREATE INDEX IF NOT EXISTS idx_tx_status_amount ON Transactions(status, amount DESC, timestamp)",
+                    "DROP INDEX IF EXISTS idx_tx_status")),
+            // Codes of TransactionType / TransactionStatus, epoch milliseconds, and no stored description
+            // (it is rendered from the other columns); a failure reason moves from the status to note.
+            // The old layout is recognised by type still being text: only then are the new columns
+            // filled and the old ones dropped, so a re-run picks up wherever the last attempt stopped
+            new Migration(6, "Compact transaction columns", List.of(
+                    onlyIf(OLD_TRANSACTION_LAYOUT, "ALTER TABLE Transactions ADD COLUMN IF NOT EXISTS typeCode TINYINT"),
+                    onlyIf(OLD_TRANSACTION_LAYOUT, "ALTER TABLE Transactions ADD COLUMN IF NOT EXISTS statusCode TINYINT"),
+                    onlyIf(OLD_TRANSACTION_LAYOUT, "ALTER TABLE Transactions ADD COLUMN IF NOT EXISTS epochMillis BIGINT"),
+                    onlyIf(OLD_TRANSACTION_LAYOUT, "ALTER TABLE Transactions ADD COLUMN IF NOT EXISTS note VARCHAR(255)"),
+                    onlyIf(OLD_TRANSACTION_LAYOUT, """
+                    UPDATE Transactions SET
+                        typeCode = CASE type
+                            WHEN 'DEPOSIT' THEN 1 WHEN 'WITHDRAW' THEN 2 WHEN 'TRANSFER' THEN 3
+                            WHEN 'TRANSFER_IN' THEN 4 WHEN 'TRANSFER_OUT' THEN 5
+                            WHEN 'LOAN_PAYMENT' THEN 6 WHEN 'Loan Payment' THEN 6 WHEN 'INTEREST' THEN 7 ELSE 0 END,
+                        statusCode = CASE
+                            WHEN status = 'PENDING' THEN 0
+                            WHEN status = 'APPROVED_AUTO' OR status LIKE 'APPROVED - Small%' THEN 1
+                            WHEN status = 'APPROVED_TELLER' OR status LIKE 'APPROVED - Teller%' THEN 2
+                            WHEN status = 'PENDING_MANAGER_APPROVAL' THEN 3
+                            WHEN status = 'APPROVED_BY_MANAGER' THEN 4
+                            WHEN status = 'COMPLETED' THEN 5
+                            WHEN status = 'REJECTED_BY_MANAGER' THEN 7
+                            WHEN status LIKE 'REJECTED%' THEN 6
+                            WHEN status LIKE 'FAILED%' THEN 8
+                            ELSE 0 END,
+                        epochMillis = CAST(EXTRACT(EPOCH FROM CAST(timestamp AS TIMESTAMP WITH TIME ZONE)) * 1000 AS BIGINT),
+                        note = CASE
+                            WHEN status LIKE 'FAILED: %' THEN SUBSTRING(status, 9)
+                            WHEN status LIKE 'REJECTED - %' THEN SUBSTRING(status, 12)
+                            ELSE NULL END"""),
+                    always("DROP INDEX IF EXISTS idx_tx_from_time"),
+                    always("DROP INDEX IF EXISTS idx_tx_to_time"),
+                    always("DROP INDEX IF EXISTS idx_tx_time"),
+                    always("DROP INDEX IF EXISTS idx_tx_status_amount"),
+                    onlyIf(OLD_TRANSACTION_LAYOUT, "ALTER TABLE Transactions DROP COLUMN type, status, timestamp, description"),
+                    onlyIf(columnExists("Transactions", "typeCode"), "ALTER TABLE Transactions ALTER COLUMN typeCode RENAME TO type"),
+                    onlyIf(columnExists("Transactions", "statusCode"), "ALTER TABLE Transactions ALTER COLUMN statusCode RENAME TO status"),
+                    onlyIf(columnExists("Transactions", "epochMillis"), "ALTER TABLE Transactions ALTER COLUMN epochMillis RENAME TO timestamp"),
+                    always("ALTER TABLE Transactions ALTER COLUMN type SET NOT NULL"),
+                    always("ALTER TABLE Transactions ALTER COLUMN status SET NOT NULL"),
+                    always("ALTER TABLE Transactions ALTER COLUMN timestamp SET NOT NULL"),
+                    always("CREATE INDEX IF NOT EXISTS idx_tx_from_time ON Transactions(fromAccount, timestamp)"),
+                    always("CREATE INDEX IF NOT EXISTS idx_tx_to_time ON Transactions(toAccount, timestamp)"),
+                    always("CREATE INDEX IF NOT EXISTS idx_tx_time ON Transactions(timestamp)"),
+                    always("CREATE INDEX IF NOT EXISTS idx_tx_status_amount ON Transactions(status, amount DESC, timestamp)"))),
+            // Hi/lo account numbers: nextValue is the first number of the next block to hand out, per prefix
+            new Migration(7, "Account number sequences", sql(
+                    """
+                    CREATE TABLE IF NOT EXISTS AccountNumberBlocks (
+                        prefix VARCHAR(16) PRIMARY KEY,
+                        nextValue BIGINT NOT NULL
+                    )""")),
+            // Standing orders; the engine pages through the due index by (nextDue, orderId)
+            new Migration(8, "Standing orders", sql(
+                    """
+                    CREATE TABLE IF NOT EXISTS StandingOrders (
+                        orderId VARCHAR(64) PRIMARY KEY,
+                        type TINYINT NOT NULL,
+                        fromAccount VARCHAR(255),
+                        toAccount VARCHAR(255),
+                        amount BIGINT NOT NULL,
+                        recurrence TINYINT NOT NULL,
+                        firstDue BIGINT NOT NULL,
+                        jitter BIGINT NOT NULL,
+                        occurrence INT NOT NULL,
+                        nextDue BIGINT NOT NULL,
+                        status TINYINT NOT NULL
+                    )""",
+                    "CREATE INDEX IF NOT EXISTS idx_standing_due ON StandingOrders(status, nextDue, orderId)",
+                    "CREATE INDEX IF NOT EXISTS idx_standing_from ON StandingOrders(fromAccount)",
+                    "CREATE INDEX IF NOT EXISTS idx_standing_to ON StandingOrders(toAccount)")),
+            // Keys are unique per owner, and a key is bound to the request it was first used for.
+            // Keys recorded before this get the empty owner, so no caller matches them; they expire with the TTL
+            new Migration(9, "Scope idempotency keys by owner", List.of(
+                    always("ALTER TABLE IdempotencyKeys ADD COLUMN IF NOT EXISTS ownerId VARCHAR(255) DEFAULT '' NOT NULL BEFORE idempotencyKey"),
+                    always("ALTER TABLE IdempotencyKeys ADD COLUMN IF NOT EXISTS fingerprint VARCHAR(64) AFTER idempotencyKey"),
+                    onlyIf(primaryKeyWithout("IdempotencyKeys", "ownerId"), "ALTER TABLE IdempotencyKeys DROP PRIMARY KEY"),
+                    onlyIf(noPrimaryKey("IdempotencyKeys"), "ALTER TABLE IdempotencyKeys ADD PRIMARY KEY (ownerId, idempotencyKey)")))
+    );
+
+    static List<Step> sql(String... statements) {
+        return Arrays.stream(statements).map(SchemaMigrator::always).toList();
+    }
+
+    static Step always(String sql) {
+        return new Step(sql, null);
+    }
+
+    static Step onlyIf(String condition, String sql) {
+        return new Step(sql, condition);
+    }
+
+    // Conditions for onlyIf(); unquoted names are stored in upper case
+    static String columnExists(String table, String column) {
+        return "SELECT 1 FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_SCHEMA = SCHEMA()"
+                + " AND TABLE_NAME = '" + table.toUpperCase() + "' AND COLUMN_NAME = '" + column.toUpperCase() + "'";
+    }
+
+    static String columnIs(String table, String column, String dataType) {
+        return columnExists(table, column) + " AND DATA_TYPE = '" + dataType + "'";
+    }
+
+    static String noPrimaryKey(String table) {
+        return "SELECT 1 WHERE NOT EXISTS (" + primaryKey(table) + ")";
+    }
+
+    static String primaryKeyWithout(String table, String column) {
+        return primaryKey(table) + " AND NOT EXISTS (SELECT 1 FROM INFORMATION_SCHEMA.KEY_COLUMN_USAGE k"
+                + " WHERE k.CONSTRAINT_SCHEMA = c.CONSTRAINT_SCHEMA AND k.CONSTRAINT_NAME = c.CONSTRAINT_NAME"
+                + " AND k.COLUMN_NAME = '" + column.toUpperCase() + "')";
+    }
+
+    private static String primaryKey(String table) {
+        return "SELECT 1 FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS c WHERE c.TABLE_SCHEMA = SCHEMA()"
+                + " AND c.TABLE_NAME = '" + table.toUpperCase() + "' AND c.CONSTRAINT_TYPE = 'PRIMARY KEY'";
+    }
+
+    private final DatabaseConnection database;
+
+    public SchemaMigrator(DatabaseConnection database) {
+        this.database = database;
+    }
+
+    /**
+     * Brings the schema up to the latest version, applying only the missing migrations.
+     */
+    public void migrate() throws SQLException {
+        try (Connection conn = database.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("""
+                    CREATE TABLE IF NOT EXISTS SchemaVersion (
+                        version INT PRIMARY KEY,
+                        description VARCHAR(255),
+                        appliedOn TIMESTAMP
+                    )""");
+        }
+
+        int current = currentVersion();
+        for (Migration migration : MIGRATIONS) {
+            if (migration.version() <= current) continue;
+            apply(migration);
+            System.out.println("Schema migrated to version " + migration.version() + ": " + migration.description());
+        }
+    }
+
+    public int currentVersion() throws SQLException {
+        try (Connection conn = database.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM SchemaVersion")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    /**
+     * Runs the steps and records the version. Plain updates share one transaction, but any DDL
+     * step commits what came before it, so this is only safe because migrations can be re-run.
+     */
+    private void apply(Migration migration) {
+        database.inTransaction(() -> {
+            try (Connection conn = database.getConnection();
+                 Statement stmt = conn.createStatement()) {
+                for (Step step : migration.steps()) {
+                    if (step.onlyIf() != null && !holds(stmt, step.onlyIf())) continue;
+                    stmt.execute(step.sql());
+                }
+            }
+            try (Connection conn = database.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(
+                         "INSERT INTO SchemaVersion (version, description, appliedOn) VALUES (?, ?, ?)")) {
+                pstmt.setInt(1, migration.version());
+                pstmt.setString(2, migration.description());
+                pstmt.setObject(3, LocalDateTime.now());
+                pstmt.executeUpdate();
+            }
+            return null;
+        });
+    }
+
+    private static boolean holds(Statement stmt, String condition) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(condition)) {
+            return rs.next();
+        }
+    }
+}
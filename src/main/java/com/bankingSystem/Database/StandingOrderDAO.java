@@ -0,0 +1,148 @@
+package com.bankingSystem.Database;
+
+import com.bankingSystem.Transaction.StandingOrder;
+import com.bankingSystem.Transaction.TransactionType;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+public class StandingOrderDAO implements StandingOrderRepository {
+
+    public void saveStandingOrder(StandingOrder order) {
+        String sql = """
+                INSERT INTO StandingOrders
+                (orderId, type, fromAccount, toAccount, amount, recurrence, firstDue, jitter, occurrence, nextDue, status)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                """;
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, order.getOrderId());
+            pstmt.setInt(2, order.getType().code());
+            pstmt.setString(3, order.getFromAccount());
+            pstmt.setString(4, order.getToAccount());
+            pstmt.setLong(5, order.getAmount());
+            pstmt.setInt(6, order.getRecurrence().code());
+            pstmt.setLong(7, order.getFirstDue());
+            pstmt.setLong(8, order.getJitter());
+            pstmt.setInt(9, order.getOccurrence());
+            pstmt.setLong(10, order.getNextDue());
+            pstmt.setInt(11, order.getStatus().code());
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error saving standing order: " + e.getMessage());
+            e.printStackTrace();
+            DatabaseConnection.getInstance().rethrowIfInTransaction(e);
+        }
+    }
+
+    public StandingOrder loadStandingOrder(String orderId) {
+        String sql = "SELECT * FROM StandingOrders WHERE orderId = ?";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, orderId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) return buildStandingOrderFromResultSet(rs);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading standing order: " + orderId);
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    public List<StandingOrder> loadStandingOrdersForAccount(String accountNumber) {
+        List<StandingOrder> orders = new ArrayList<>();
+        String sql = "SELECT * FROM StandingOrders WHERE fromAccount = ? OR toAccount = ? ORDER BY nextDue";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, accountNumber);
+            pstmt.setString(2, accountNumber);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) orders.add(buildStandingOrderFromResultSet(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading standing orders for account: " + accountNumber);
+            e.printStackTrace();
+        }
+        return orders;
+    }
+
+    /**
+     * Keyset query on idx_standing_due (status, nextDue, orderId): each page is a seek plus
+     * limit rows, however many orders are stored.
+     */
+    public List<StandingOrder> loadDueStandingOrders(long dueBefore, long afterDue, String afterId, int limit) {
+        List<StandingOrder> orders = new ArrayList<>();
+        String sql = """
+                SELECT * FROM StandingOrders
+                WHERE status = ? AND nextDue < ? AND nextDue >= ? AND (nextDue > ? OR orderId > ?)
+                ORDER BY nextDue, orderId LIMIT ?
+                """;
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, StandingOrder.Status.ACTIVE.code());
+            pstmt.setLong(2, dueBefore);
+            pstmt.setLong(3, afterDue);
+            pstmt.setLong(4, afterDue);
+            pstmt.setString(5, afterId);
+            pstmt.setInt(6, limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) orders.add(buildStandingOrderFromResultSet(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading due standing orders: " + e.getMessage());
+            e.printStackTrace();
+        }
+        return orders;
+    }
+
+    public void updateStandingOrders(List<StandingOrder> orders) {
+        String sql = "UPDATE StandingOrders SET occurrence = ?, nextDue = ?, status = ? WHERE orderId = ?";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (StandingOrder order : orders) {
+                pstmt.setInt(1, order.getOccurrence());
+                pstmt.setLong(2, order.getNextDue());
+                pstmt.setInt(3, order.getStatus().code());
+                pstmt.setString(4, order.getOrderId());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        } catch (SQLException e) {
+            System.err.println("Error updating standing orders: " + e.getMessage());
+            DatabaseConnection.getInstance().rethrowIfInTransaction(e);
+        }
+    }
+
+    public boolean cancelStandingOrder(String orderId) {
+        String sql = "UPDATE StandingOrders SET status = ? WHERE orderId = ? AND status = ?";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, StandingOrder.Status.CANCELLED.code());
+            pstmt.setString(2, orderId);
+            pstmt.setInt(3, StandingOrder.Status.ACTIVE.code());
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Error cancelling standing order: " + e.getMessage());
+            DatabaseConnection.getInstance().rethrowIfInTransaction(e);
+            return false;
+        }
+    }
+
+    private StandingOrder buildStandingOrderFromResultSet(ResultSet rs) throws SQLException {
+        return new StandingOrder(
+                rs.getString("orderId"),
+                TransactionType.fromCode(rs.getInt("type")),
+                rs.getString("fromAccount"),
+                rs.getString("toAccount"),
+                rs.getLong("amount"),
+                StandingOrder.Recurrence.fromCode(rs.getInt("recurrence")),
+                rs.getLong("firstDue"),
+                rs.getLong("jitter"),
+                rs.getInt("occurrence"),
+                rs.getLong("nextDue"),
+                StandingOrder.Status.fromCode(rs.getInt("status"))
+        );
+    }
+}
@@ -0,0 +1,33 @@
+package com.bankingSystem.Database;
+
+import com.bankingSystem.Transaction.StandingOrder;
+
+import java.util.List;
+
+/**
+ * Storage of standing orders. StandingOrderDAO is the H2 implementation,
+ * InMemoryStandingOrderRepository the in-memory one.
+ */
+public interface StandingOrderRepository {
+    void saveStandingOrder(StandingOrder order);
+
+    StandingOrder loadStandingOrder(String orderId);
+
+    List<StandingOrder> loadStandingOrdersForAccount(String accountNumber);
+
+    /**
+     * Active orders due before the given time, in (nextDue, orderId) order, starting after the
+     * keyset position (afterDue, afterId). The engine pages through its load window with this.
+     */
+    List<StandingOrder> loadDueStandingOrders(long dueBefore, long afterDue, String afterId, int limit);
+
+    /**
+     * Writes each order's occurrence, nextDue and status with one JDBC batch.
+     */
+    void updateStandingOrders(List<StandingOrder> orders);
+
+    /**
+     * Marks an active order cancelled; false if there is no such active order.
+     */
+    boolean cancelStandingOrder(String orderId);
+}
@@ -0,0 +1,26 @@
+package com.bankingSystem.Database;
+
+/**
+ * Holds the storage engine the application runs on (Singleton).
+ * -Dbank.storage=jdbc (default) keeps everything in H2; -Dbank.storage=memory runs on
+ * concurrent in-memory maps, e.g. to benchmark the business logic without I/O.
+ */
+public final class Storage {
+    private static StorageEngine engine;
+
+    private Storage() {
+    }
+
+    public static synchronized StorageEngine getInstance() {
+        if (engine == null) {
+            String kind = System.getProperty("bank.storage", "jdbc");
+            engine = switch (kind.toLowerCase()) {
+                case "jdbc" -> new JdbcStorageEngine();
+                case "memory" -> InMemoryStorageEngine.create();
+                default -> throw new IllegalArgumentException("Unknown storage engine: " + kind);
+            };
+            System.out.println("Storage engine: " + kind);
+        }
+        return engine;
+    }
+}
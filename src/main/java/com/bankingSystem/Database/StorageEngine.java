@@ -0,0 +1,26 @@
+package com.bankingSystem.Database;
+
+/**
+ * A complete storage backend: the repositories plus a way to run several writes as
+ * one unit. Chosen once at startup with -Dbank.storage=jdbc|memory (see Storage).
+ */
+public interface StorageEngine {
+    AccountRepository accounts();
+
+    TransactionRepository transactions();
+
+    UserRepository users();
+
+    StandingOrderRepository standingOrders();
+
+    /**
+     * Runs the work so its writes either all happen or none do. Nested calls join the
+     * outer unit of work.
+     */
+    <T> T inTransaction(DatabaseConnection.TransactionalWork<T> work);
+
+    /**
+     * True if the data outlives the process (the journal and its checkpoints apply).
+     */
+    boolean isPersistent();
+}
@@ -1,36 +1,57 @@
 package com.bankingSystem.Database;
 
 import com.bankingSystem.Transaction.Transaction;
+import com.bankingSystem.Transaction.TransactionPage;
+import com.bankingSystem.Transaction.TransactionStatus;
+import com.bankingSystem.Transaction.TransactionType;
 
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import com.bankingSystem.Database.*;
+import java.util.function.Consumer;
 
-public class TransactionDAO {
-    private final Connection conn = DatabaseConnection.getInstance().getConnection();
+public class TransactionDAO implements TransactionRepository {
 
-
-    public void saveTransaction(Transaction tx) {
-        String sql = """
-            INSERT INTO Transactions 
-            (transactionId, type, amount, timestamp, fromAccount, toAccount, status, description) 
+    private static final String INSERT_SQL = """
+            INSERT INTO Transactions
+            (transactionId, type, amount, timestamp, fromAccount, toAccount, status, note)
             VALUES (?, ?, ?, ?, ?, ?, ?, ?)
             """;
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, tx.getTransactionId());
-            pstmt.setString(2, tx.getType());
-            pstmt.setDouble(3, tx.getAmount());
-            pstmt.setObject(4, tx.getTimestamp());
-            pstmt.setString(5, tx.getFromAccount());
-            pstmt.setString(6, tx.getToAccount());
-            pstmt.setString(7, tx.getStatus());
-            pstmt.setString(8, tx.getDescription());
-            pstmt.executeUpdate();
+
+    /**
+     * Inside a unit of work the row is written on the shared connection and committed with it.
+     * Otherwise it is committed on its own; a failure is thrown in both cases.
+     */
+    public void saveTransaction(Transaction tx) {
+        DatabaseConnection.getInstance().inTransaction(() -> {
+            saveTransactions(List.of(tx));
+            return null;
+        });
+    }
+
+    /**
+     * Inserts all records with one JDBC batch.
+     */
+    public void saveTransactions(List<Transaction> transactions) {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(INSERT_SQL)) {
+            for (Transaction tx : transactions) {
+                pstmt.setString(1, tx.getTransactionId());
+                pstmt.setInt(2, tx.getType().code());
+                pstmt.setLong(3, tx.getAmount());
+                pstmt.setLong(4, tx.getTimestamp());
+                pstmt.setString(5, tx.getFromAccount());
+                pstmt.setString(6, tx.getToAccount());
+                pstmt.setInt(7, tx.getStatus().code());
+                pstmt.setString(8, tx.getNote());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
         } catch (SQLException e) {
             System.err.println("Error saving transaction: " + e.getMessage());
             e.printStackTrace();
+            DatabaseConnection.getInstance().rethrowIfInTransaction(e);
         }
     }
 
@@ -43,7 +64,8 @@ public class TransactionDAO {
             ORDER BY timestamp DESC
             """;
 
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, accountNumber);
             pstmt.setString(2, accountNumber);
 
@@ -61,11 +83,71 @@ public class TransactionDAO {
         return transactions;
     }
 
+    public static final int REPORT_FETCH_SIZE = 500;
+    static final TransactionStatus PENDING_STATUS = TransactionStatus.PENDING_MANAGER_APPROVAL;
+
+    /**
+     * One page of an account's history, newest first, using keyset pagination on
+     * (timestamp, transactionId). Each side of the account is read through its own
+     * (account, timestamp) index and the two short lists are merged, so the cost depends on
+     * the page size, not on how much history the account has.
+     */
+    public TransactionPage loadTransactionsPage(String accountNumber, TransactionPage.Cursor after, int pageSize) {
+        if (pageSize <= 0) throw new IllegalArgumentException("Page size must be positive");
+        int limit = Math.min(pageSize, MAX_PAGE_SIZE) + 1; // one extra row tells us if there is a next page
+
+        String seek = after == null ? "" : " AND timestamp <= ? AND (timestamp < ? OR transactionId < ?)";
+        String order = " ORDER BY timestamp DESC, transactionId DESC LIMIT ?";
+        String sql = "SELECT * FROM ("
+                + "(SELECT * FROM Transactions WHERE fromAccount = ?" + seek + order + ")"
+                + " UNION ALL "
+                + "(SELECT * FROM Transactions WHERE toAccount = ? AND (fromAccount IS NULL OR fromAccount <> ?)" + seek + order + ")"
+                + ")" + order;
+
+        List<Transaction> transactions = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            pstmt.setString(i++, accountNumber);
+            i = bindSeek(pstmt, i, after);
+            pstmt.setInt(i++, limit);
+            pstmt.setString(i++, accountNumber);
+            pstmt.setString(i++, accountNumber);
+            i = bindSeek(pstmt, i, after);
+            pstmt.setInt(i++, limit);
+            pstmt.setInt(i, limit);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    transactions.add(buildTransactionFromResultSet(rs));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading transactions for account: " + accountNumber);
+            e.printStackTrace();
+        }
+
+        if (transactions.size() < limit) {
+            return new TransactionPage(transactions, null);
+        }
+        transactions.remove(transactions.size() - 1);
+        return new TransactionPage(transactions, TransactionPage.Cursor.after(transactions.get(transactions.size() - 1)));
+    }
+
+    private int bindSeek(PreparedStatement pstmt, int index, TransactionPage.Cursor after) throws SQLException {
+        if (after == null) return index;
+        pstmt.setLong(index++, after.timestamp());
+        pstmt.setLong(index++, after.timestamp());
+        pstmt.setString(index++, after.transactionId());
+        return index;
+    }
+
     public List<Transaction> loadAllTransactions() {
         List<Transaction> transactions = new ArrayList<>();
         String sql = "SELECT * FROM Transactions ORDER BY timestamp DESC";
 
-        try (Statement stmt = conn.createStatement();
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
 
             while (rs.next()) {
@@ -79,14 +161,32 @@ public class TransactionDAO {
         return transactions;
     }
 
+    /**
+     * Constant-memory variant of loadAllTransactions() for reports: rows are handed to the
+     * sink one by one while the query is still running.
+     */
+    public void streamAllTransactions(Consumer<? super Transaction> sink) {
+        String sql = "SELECT * FROM Transactions ORDER BY timestamp DESC";
+        try {
+            DatabaseConnection.getInstance().stream(sql, REPORT_FETCH_SIZE, this::buildTransactionFromResultSet, sink);
+        } catch (SQLException e) {
+            System.err.println("Error streaming transactions");
+            e.printStackTrace();
+        }
+    }
+
     public List<Transaction> loadPendingTransactions() {
         List<Transaction> pending = new ArrayList<>();
-        String sql = "SELECT * FROM Transactions WHERE status LIKE '%PENDING%' OR status LIKE '%Requires%'";
+        // Exact match, read in queue order straight off idx_tx_status_amount
+        String sql = "SELECT * FROM Transactions WHERE status = ? ORDER BY amount DESC, timestamp";
 
-        try (Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                pending.add(buildTransactionFromResultSet(rs));
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, PENDING_STATUS.code());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    pending.add(buildTransactionFromResultSet(rs));
+                }
             }
         } catch (SQLException e) {
             e.printStackTrace();
@@ -94,27 +194,69 @@ public class TransactionDAO {
         return pending;
     }
 
-    public void updateTransactionStatus(String transactionId, String newStatus) {
-        String sql = "UPDATE Transactions SET status = ? WHERE transactionId = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, newStatus);
-            pstmt.setString(2, transactionId);
+    public void updateTransactionStatus(String transactionId, TransactionStatus newStatus, String note) {
+        String sql = "UPDATE Transactions SET status = ?, note = ? WHERE transactionId = ?";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, newStatus.code());
+            pstmt.setString(2, note);
+            pstmt.setString(3, transactionId);
             pstmt.executeUpdate();
         } catch (SQLException e) {
             System.err.println("Error updating transaction status: " + e.getMessage());
+            DatabaseConnection.getInstance().rethrowIfInTransaction(e);
+        }
+    }
+    public void updateTransactionStatuses(List<Transaction> transactions) {
+        String sql = "UPDATE Transactions SET status = ?, note = ? WHERE transactionId = ?";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (Transaction tx : transactions) {
+                pstmt.setInt(1, tx.getStatus().code());
+                pstmt.setString(2, tx.getNote());
+                pstmt.setString(3, tx.getTransactionId());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        } catch (SQLException e) {
+            System.err.println("Error updating transaction statuses: " + e.getMessage());
+            DatabaseConnection.getInstance().rethrowIfInTransaction(e);
         }
     }
+
+    public List<String> transitionStatuses(List<String> transactionIds, TransactionStatus expected, TransactionStatus newStatus) {
+        String sql = "UPDATE Transactions SET status = ?, note = NULL WHERE transactionId = ? AND status = ?";
+        List<String> moved = new ArrayList<>(transactionIds.size());
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (String transactionId : transactionIds) {
+                pstmt.setInt(1, newStatus.code());
+                pstmt.setString(2, transactionId);
+                pstmt.setInt(3, expected.code());
+                pstmt.addBatch();
+            }
+            int[] counts = pstmt.executeBatch();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) moved.add(transactionIds.get(i)); // 0: the row had moved on already
+            }
+        } catch (SQLException e) {
+            System.err.println("Error updating transaction statuses: " + e.getMessage());
+            DatabaseConnection.getInstance().rethrowIfInTransaction(e);
+        }
+        return moved;
+    }
+
     // دالة مساعدة لبناء كائن Transaction من ResultSet
     private Transaction buildTransactionFromResultSet(ResultSet rs) throws SQLException {
         return new Transaction(
                 rs.getString("transactionId"),
-                rs.getString("type"),
-                rs.getDouble("amount"),
-                rs.getObject("timestamp", LocalDateTime.class),
+                TransactionType.fromCode(rs.getInt("type")),
+                rs.getLong("amount"),
+                rs.getLong("timestamp"),
                 rs.getString("fromAccount"),
                 rs.getString("toAccount"),
-                rs.getString("status"),
-                rs.getString("description")
+                TransactionStatus.fromCode(rs.getInt("status")),
+                rs.getString("note")
         );
     }
 
@@ -122,7 +264,8 @@ public class TransactionDAO {
     public Transaction loadTransactionById(String transactionId) {
         String sql = "SELECT * FROM Transactions WHERE transactionId = ?";
 
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, transactionId);
 
             try (ResultSet rs = pstmt.executeQuery()) {
@@ -138,6 +281,54 @@ public class TransactionDAO {
         return null; // Return null if no transaction found with this ID
     }
 
+    public void saveIdempotencyKey(String ownerId, String idempotencyKey, String fingerprint, String transactionId) {
+        String sql = "INSERT INTO IdempotencyKeys (ownerId, idempotencyKey, fingerprint, transactionId, createdAt) VALUES (?, ?, ?, ?, ?)";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, ownerId);
+            pstmt.setString(2, idempotencyKey);
+            pstmt.setString(3, fingerprint);
+            pstmt.setString(4, transactionId);
+            pstmt.setObject(5, LocalDateTime.now());
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            // A duplicate key lands here too; rolling back the unit is exactly what we want then
+            System.err.println("Error saving idempotency key: " + e.getMessage());
+            DatabaseConnection.getInstance().rethrowIfInTransaction(e);
+        }
+    }
+
+    public IdempotencyRecord findIdempotencyKey(String ownerId, String idempotencyKey, LocalDateTime notBefore) {
+        String sql = "SELECT transactionId, fingerprint FROM IdempotencyKeys WHERE ownerId = ? AND idempotencyKey = ? AND createdAt >= ?";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, ownerId);
+            pstmt.setString(2, idempotencyKey);
+            pstmt.setObject(3, notBefore);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return new IdempotencyRecord(rs.getString(1), rs.getString(2));
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Error loading idempotency key: " + idempotencyKey);
+            e.printStackTrace();
+        }
+        return null;
+    }
+
+    public int deleteIdempotencyKeysBefore(LocalDateTime cutoff) {
+        String sql = "DELETE FROM IdempotencyKeys WHERE createdAt < ?";
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setObject(1, cutoff);
+            return pstmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error purging idempotency keys: " + e.getMessage());
+            return 0;
+        }
+    }
+
 
 
 }
\ No newline at end of file
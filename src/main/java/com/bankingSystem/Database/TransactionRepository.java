@@ -0,0 +1,80 @@
+package com.bankingSystem.Database;
+
+import com.bankingSystem.Transaction.Transaction;
+import com.bankingSystem.Transaction.TransactionPage;
+import com.bankingSystem.Transaction.TransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Storage of the transaction ledger. TransactionDAO is the H2 implementation,
+ * InMemoryTransactionRepository the in-memory one.
+ */
+public interface TransactionRepository {
+    int MAX_PAGE_SIZE = 500;
+
+    /**
+     * What an idempotency key was recorded with: the transaction it produced and the
+     * fingerprint of the request that used it.
+     */
+    record IdempotencyRecord(String transactionId, String fingerprint) {
+    }
+
+    void saveTransaction(Transaction tx);
+
+    void saveTransactions(List<Transaction> transactions);
+
+    List<Transaction> loadTransactions(String accountNumber);
+
+    /**
+     * One page of an account's history, newest first, ordered by (timestamp, transactionId).
+     */
+    TransactionPage loadTransactionsPage(String accountNumber, TransactionPage.Cursor after, int pageSize);
+
+    List<Transaction> loadAllTransactions();
+
+    void streamAllTransactions(Consumer<? super Transaction> sink);
+
+    /**
+     * Transactions waiting for manager approval, largest amount first, then oldest first.
+     */
+    List<Transaction> loadPendingTransactions();
+
+    /**
+     * Sets the stored status and note (the reason for FAILED or REJECTED, otherwise null).
+     */
+    void updateTransactionStatus(String transactionId, TransactionStatus newStatus, String note);
+
+    /**
+     * Writes each transaction's current status and note with one JDBC batch.
+     */
+    void updateTransactionStatuses(List<Transaction> transactions);
+
+    /**
+     * Moves each listed row from the expected status to the new one, but only if it still has the
+     * expected status, and returns the ids that moved. This is how a row is claimed: of two
+     * processes moving the same row, only one sees it change.
+     */
+    List<String> transitionStatuses(List<String> transactionIds, TransactionStatus expected, TransactionStatus newStatus);
+
+    Transaction loadTransactionById(String transactionId);
+
+    /**
+     * Records that the owner's idempotency key produced this transaction for the request with
+     * this fingerprint. Keys are scoped per owner. Meant to run in the same unit of work as the
+     * ledger insert; a key the owner already recorded fails the unit.
+     */
+    void saveIdempotencyKey(String ownerId, String idempotencyKey, String fingerprint, String transactionId);
+
+    /**
+     * What the owner's key was recorded with, or null if there is no record newer than notBefore.
+     */
+    IdempotencyRecord findIdempotencyKey(String ownerId, String idempotencyKey, LocalDateTime notBefore);
+
+    /**
+     * Drops keys recorded before the cutoff; returns how many were removed.
+     */
+    int deleteIdempotencyKeysBefore(LocalDateTime cutoff);
+}
@@ -7,13 +7,13 @@ import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
 
-public class UserDAO {
-    private final Connection conn = DatabaseConnection.getInstance().getConnection();
+public class UserDAO implements UserRepository {
 
     public void saveUser(User user) {
         String sql = """
 MERGE INTO Users KEY(id) VALUES (?, ?, ?, ?)""";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, user.getUserId());
             pstmt.setString(2, user.getUsername());
             pstmt.setString(3, user.passwordHash);
@@ -23,12 +23,14 @@ MERGE INTO Users KEY(id) VALUES (?, ?, ?, ?)""";
         } catch (SQLException e) {
             System.err.println("Error saving user: " + e.getMessage());
             e.printStackTrace();
+            DatabaseConnection.getInstance().rethrowIfInTransaction(e);
         }
     }
 
     public User loadUser(String username) {
         String sql = "SELECT * FROM Users WHERE username = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, username);
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
@@ -42,7 +44,8 @@ MERGE INTO Users KEY(id) VALUES (?, ?, ?, ?)""";
 
     public User loadUserById(String userId) {
         String sql = "SELECT * FROM Users WHERE id = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, userId);
             ResultSet rs = pstmt.executeQuery();
             if (rs.next()) {
@@ -76,7 +79,8 @@ MERGE INTO Users KEY(id) VALUES (?, ?, ?, ?)""";
         List<User> users = new ArrayList<>();
         String sql = "SELECT * FROM Users WHERE role = ?";
 
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, roleName);
             ResultSet rs = pstmt.executeQuery();
             while (rs.next()) {
@@ -93,7 +97,8 @@ MERGE INTO Users KEY(id) VALUES (?, ?, ?, ?)""";
         List<User> users = new ArrayList<>();
         String sql = "SELECT * FROM Users";
 
-        try (Statement stmt = conn.createStatement();
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             while (rs.next()) {
                 users.add(buildUserFromResultSet(rs));
@@ -106,12 +111,14 @@ MERGE INTO Users KEY(id) VALUES (?, ?, ?, ?)""";
 
     public void deleteUser(String userId) {
         String sql = "DELETE FROM Users WHERE id = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = DatabaseConnection.getInstance().getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, userId);
             pstmt.executeUpdate();
             System.out.println("User deleted: " + userId);
         } catch (SQLException e) {
             System.err.println("Error deleting user: " + e.getMessage());
+            DatabaseConnection.getInstance().rethrowIfInTransaction(e);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.bankingSystem.Database;
+
+import com.bankingSystem.user.User;
+
+import java.util.List;
+
+/**
+ * Storage of users. UserDAO is the H2 implementation, InMemoryUserRepository the in-memory one.
+ */
+public interface UserRepository {
+    void saveUser(User user);
+
+    User loadUser(String username);
+
+    User loadUserById(String userId);
+
+    List<User> getAllUsersByRole(String roleName);
+
+    List<User> getAllUsers();
+
+    void deleteUser(String userId);
+}
@@ -2,10 +2,10 @@
 package com.bankingSystem.Interest;
 
 public class CheckingInterest implements InterestStrategy {
-    private final double rate = 0.0; // لا فائدة للحساب الجاري
+    private final long rateBps = 0; // لا فائدة للحساب الجاري
 
     @Override
-    public double calculateInterest(double balance) {
-        return 0.0; // دائمًا 0
+    public long calculateInterest(long balance) {
+        return 0; // دائمًا 0
     }
 }
\ No newline at end of file
@@ -4,8 +4,8 @@ package com.bankingSystem.Interest;
 public interface InterestStrategy {
     /**
      * يحسب الفائدة بناءً على الرصيد الحالي للحساب.
-     * @param balance الرصيد الحالي للحساب.
-     * @return قيمة الفائدة المحسوبة (double).
+     * @param balance الرصيد الحالي للحساب بالوحدة الصغرى (سنت).
+     * @return قيمة الفائدة المحسوبة بالوحدة الصغرى (long).
      */
-    double calculateInterest(double balance);
+    long calculateInterest(long balance);
 }
\ No newline at end of file
@@ -1,18 +1,19 @@
 // src/main/java/com/bankingSystem/Interest/InvestmentInterest.java
 package com.bankingSystem.Interest;
 
-import java.util.Random;
+import com.bankingSystem.Util.Money;
+
+import java.util.concurrent.ThreadLocalRandom;
 
 public class InvestmentInterest implements InterestStrategy {
-    private final double baseRate = 0.09; // 9% أساسي
+    private final long baseRateBps = 900; // 9% أساسي (basis points)
 
     @Override
-    public double calculateInterest(double balance) {
-        if (balance <= 0) return 0.0; // لا فائدة على الرصيد غير الإيجابي
+    public long calculateInterest(long balance) {
+        if (balance <= 0) return 0; // لا فائدة على الرصيد غير الإيجابي
 
-        Random random = new Random();
         // Simulation للمخاطرة: تغيير عشوائي بين -10% إلى +10%
-        double volatility = (random.nextDouble() * 0.20 - 0.10); // -0.10 إلى +0.10
-        return balance * (baseRate + volatility);
+        long volatilityBps = ThreadLocalRandom.current().nextLong(-1000, 1001); // -0.10 إلى +0.10
+        return Money.applyRate(balance, baseRateBps + volatilityBps);
     }
 }
\ No newline at end of file
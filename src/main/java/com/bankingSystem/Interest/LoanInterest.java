@@ -1,13 +1,15 @@
 // src/main/java/com/bankingSystem/Interest/LoanInterest.java
 package com.bankingSystem.Interest;
 
+import com.bankingSystem.Util.Money;
+
 public class LoanInterest implements InterestStrategy {
-    private final double rate = 0.07; // 7% سنوي
+    private final long rateBps = 700; // 7% سنوي (basis points)
 
     @Override
-    public double calculateInterest(double balance) {
+    public long calculateInterest(long balance) {
         // الفائدة على الديون (الرصيد سالب)، شهري
-        double debt = Math.abs(balance); // أخذ القيمة المطلقة للديون
-        return debt * rate / 12; // شهري
+        long debt = Math.abs(balance); // أخذ القيمة المطلقة للديون
+        return Money.applyRate(debt, rateBps, 12); // شهري
     }
 }
\ No newline at end of file
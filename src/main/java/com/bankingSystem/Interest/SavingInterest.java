@@ -1,12 +1,14 @@
 // src/main/java/com/bankingSystem/Interest/SavingInterest.java
 package com.bankingSystem.Interest;
 
+import com.bankingSystem.Util.Money;
+
 public class SavingInterest implements InterestStrategy {
-    private final double rate = 0.04; // 4% سنوي
+    private final long rateBps = 400; // 4% سنوي (basis points)
 
     @Override
-    public double calculateInterest(double balance) {
-        if (balance < 0) return 0.0; // لا فائدة على الرصيد السالب
-        return balance * rate;
+    public long calculateInterest(long balance) {
+        if (balance < 0) return 0; // لا فائدة على الرصيد السالب
+        return Money.applyRate(balance, rateBps);
     }
 }
\ No newline at end of file
@@ -0,0 +1,206 @@
+package com.bankingSystem.Proxy;
+
+import com.bankingSystem.Account.Account;
+import com.bankingSystem.Transaction.Transaction;
+import com.bankingSystem.Transaction.TransactionPage;
+import com.bankingSystem.Transaction.TransactionResult;
+import com.bankingSystem.user.User;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Decorator that runs every BankingService call on the RequestExecutor's virtual threads.
+ * Usually wraps a RoleBasedAccessProxy, so permission checks still apply. The blocking
+ * methods wait for the result and rethrow the original exception (e.g. SecurityException).
+ * The *Async variants return a CompletableFuture instead.
+ * A posting that outlives its deadline fails with OutcomeUnknownException and may still go
+ * through; post with an idempotency key to be able to ask again safely.
+ */
+public class AsyncBankingService implements BankingService {
+    private static final Duration REPORT_TIMEOUT = Duration.ofMillis(Long.getLong("bank.requests.reportTimeoutMs", 300_000L));
+
+    private final BankingService delegate;
+    private final RequestExecutor executor;
+
+    public AsyncBankingService(BankingService delegate) {
+        this(delegate, RequestExecutor.getInstance());
+    }
+
+    AsyncBankingService(BankingService delegate, RequestExecutor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    // ====================== Async variants ======================
+
+    public CompletableFuture<Void> performTransactionAsync(String ownerId, Account from, Account to, long amount, String type) {
+        return executor.submit(() -> {
+            delegate.performTransaction(ownerId, from, to, amount, type);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Transaction> performTransactionAsync(String ownerId, String idempotencyKey,
+                                                                 Account from, Account to, long amount, String type) {
+        return executor.submit(() -> delegate.performTransaction(ownerId, idempotencyKey, from, to, amount, type));
+    }
+
+    public CompletableFuture<List<Transaction>> getTransactionHistoryAsync(String ownerId, String accountNumber) {
+        return executor.submit(() -> delegate.getTransactionHistory(ownerId, accountNumber));
+    }
+
+    public CompletableFuture<TransactionPage> getTransactionHistoryPageAsync(String ownerId, String accountNumber,
+                                                                            TransactionPage.Cursor after, int pageSize) {
+        return executor.submit(() -> delegate.getTransactionHistoryPage(ownerId, accountNumber, after, pageSize));
+    }
+
+    public CompletableFuture<List<Transaction>> getAllTransactionsReportAsync() {
+        return executor.submit(delegate::getAllTransactionsReport, REPORT_TIMEOUT);
+    }
+
+    public CompletableFuture<List<Account>> getAllAccountsReportAsync() {
+        return executor.submit(delegate::getAllAccountsReport, REPORT_TIMEOUT);
+    }
+
+    public CompletableFuture<Void> streamAllTransactionsReportAsync(Consumer<? super Transaction> sink) {
+        return executor.submit(() -> {
+            delegate.streamAllTransactionsReport(sink);
+            return null;
+        }, REPORT_TIMEOUT);
+    }
+
+    public CompletableFuture<Void> streamAllAccountsReportAsync(Consumer<? super Account> sink) {
+        return executor.submit(() -> {
+            delegate.streamAllAccountsReport(sink);
+            return null;
+        }, REPORT_TIMEOUT);
+    }
+
+    // A large approval batch can take as long as a report
+    public CompletableFuture<List<TransactionResult>> approvePendingTransactionsAsync(List<String> transactionIds) {
+        return executor.submit(() -> delegate.approvePendingTransactions(transactionIds), REPORT_TIMEOUT);
+    }
+
+    // ====================== BankingService (blocking) ======================
+
+    @Override
+    public void performTransaction(String ownerId, Account from, Account to, long amount, String type) {
+        await(performTransactionAsync(ownerId, from, to, amount, type));
+    }
+
+    @Override
+    public Transaction performTransaction(String ownerId, String idempotencyKey, Account from, Account to, long amount, String type) {
+        return await(performTransactionAsync(ownerId, idempotencyKey, from, to, amount, type));
+    }
+
+    @Override
+    public List<Transaction> getTransactionHistory(String ownerId, String accountNumber) {
+        return await(getTransactionHistoryAsync(ownerId, accountNumber));
+    }
+
+    @Override
+    public TransactionPage getTransactionHistoryPage(String ownerId, String accountNumber, TransactionPage.Cursor after, int pageSize) {
+        return await(getTransactionHistoryPageAsync(ownerId, accountNumber, after, pageSize));
+    }
+
+    @Override
+    public void modifyAccountInfo(String ownerId, Account account, String field, String newValue) {
+        run(() -> {
+            delegate.modifyAccountInfo(ownerId, account, field, newValue);
+            return null;
+        });
+    }
+
+    @Override
+    public Account createAccount(String accountType, String ownerId) {
+        return run(() -> delegate.createAccount(accountType, ownerId));
+    }
+
+    @Override
+    public void changeAccountState(String accountNumber, String newState) {
+        run(() -> {
+            delegate.changeAccountState(accountNumber, newState);
+            return null;
+        });
+    }
+
+    @Override
+    public Account findAccountByNumber(String accountNumber) {
+        return run(() -> delegate.findAccountByNumber(accountNumber));
+    }
+
+    @Override
+    public List<User> getAllTellers() {
+        return run(delegate::getAllTellers);
+    }
+
+    @Override
+    public void addTeller(String username, String password) {
+        run(() -> {
+            delegate.addTeller(username, password);
+            return null;
+        });
+    }
+
+    @Override
+    public void deleteTeller(String userId) {
+        run(() -> {
+            delegate.deleteTeller(userId);
+            return null;
+        });
+    }
+
+    @Override
+    public List<User> getAllCustomers() {
+        return run(delegate::getAllCustomers);
+    }
+
+    @Override
+    public List<Transaction> getAllTransactionsReport() {
+        return await(getAllTransactionsReportAsync());
+    }
+
+    @Override
+    public List<Account> getAllAccountsReport() {
+        return await(getAllAccountsReportAsync());
+    }
+
+    @Override
+    public void streamAllTransactionsReport(Consumer<? super Transaction> sink) {
+        await(streamAllTransactionsReportAsync(sink));
+    }
+
+    @Override
+    public void streamAllAccountsReport(Consumer<? super Account> sink) {
+        await(streamAllAccountsReportAsync(sink));
+    }
+
+    @Override
+    public List<Transaction> getPendingApprovals(int limit) {
+        return run(() -> delegate.getPendingApprovals(limit));
+    }
+
+    @Override
+    public List<TransactionResult> approvePendingTransactions(List<String> transactionIds) {
+        return await(approvePendingTransactionsAsync(transactionIds));
+    }
+
+    private <T> T run(Callable<T> request) {
+        return await(executor.submit(request));
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw e;
+        }
+    }
+}
@@ -4,13 +4,19 @@ package com.bankingSystem.Proxy;
 import com.bankingSystem.Account.Account;
 import com.bankingSystem.user.User;
 import com.bankingSystem.Transaction.Transaction;
+import com.bankingSystem.Transaction.TransactionPage;
+import com.bankingSystem.Transaction.TransactionResult;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BankingService {
     // Customer permissions
-    void performTransaction(String ownerId, Account from, Account to, double amount, String type);
+    void performTransaction(String ownerId, Account from, Account to, long amount, String type);
+    // Retry-safe variant: the owner repeating an idempotencyKey gets the original transaction instead of running again
+    Transaction performTransaction(String ownerId, String idempotencyKey, Account from, Account to, long amount, String type);
     List<Transaction> getTransactionHistory(String ownerId, String accountNumber);
+    TransactionPage getTransactionHistoryPage(String ownerId, String accountNumber, TransactionPage.Cursor after, int pageSize);
     void modifyAccountInfo(String ownerId, Account account, String field, String newValue);
 
     // Teller permissions
@@ -25,4 +31,10 @@ public interface BankingService {
     List<User> getAllCustomers();
     List<Transaction> getAllTransactionsReport();
     List<Account> getAllAccountsReport();
+    // Streaming variants: rows reach the sink as they are read, memory stays constant
+    void streamAllTransactionsReport(Consumer<? super Transaction> sink);
+    void streamAllAccountsReport(Consumer<? super Account> sink);
+    // Pending approval queue: largest and oldest first; approved items run as one batch
+    List<Transaction> getPendingApprovals(int limit);
+    List<TransactionResult> approvePendingTransactions(List<String> transactionIds);
 }
\ No newline at end of file
@@ -8,23 +8,43 @@ import com.bankingSystem.user.*;
 import com.bankingSystem.Transaction.*;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public class BankingServiceImpl implements BankingService {
-    private final TransactionService transactionService = new TransactionService();
-    private final AccountDAO accountDAO = new AccountDAO();
-    private final UserDAO userDAO = new UserDAO();
-    private final TransactionDAO transactionDAO = new TransactionDAO();
+    private final TransactionService transactionService;
+    private final AccountRepository accountDAO = Storage.getInstance().accounts();
+    private final UserRepository userDAO = Storage.getInstance().users();
+    private final TransactionRepository transactionDAO = Storage.getInstance().transactions();
+
+    public BankingServiceImpl() {
+        this(null);
+    }
+
+    // The role is what the approval rules see for transactions made through this service
+    public BankingServiceImpl(Role role) {
+        this.transactionService = new TransactionService(role);
+    }
 
     @Override
-    public void performTransaction(String ownerId, Account from, Account to, double amount, String type) {
+    public void performTransaction(String ownerId, Account from, Account to, long amount, String type) {
         transactionService.processTransaction(from, to, amount, type);
     }
 
+    @Override
+    public Transaction performTransaction(String ownerId, String idempotencyKey, Account from, Account to, long amount, String type) {
+        return transactionService.processTransaction(ownerId, idempotencyKey, from, to, amount, type);
+    }
+
     @Override
     public List<Transaction> getTransactionHistory(String ownerId, String accountNumber) {
+        return getTransactionHistoryPage(ownerId, accountNumber, null, Account.DEFAULT_HISTORY_PAGE_SIZE).transactions();
+    }
+
+    @Override
+    public TransactionPage getTransactionHistoryPage(String ownerId, String accountNumber, TransactionPage.Cursor after, int pageSize) {
         Account account = accountDAO.loadAccount(accountNumber);
         if (account != null && account.getOwnerId().equals(ownerId)) {
-            return account.getTransactionHistory();
+            return account.getTransactionHistoryPage(after, pageSize);
         }
         throw new SecurityException("Access denied: Not your account");
     }
@@ -42,11 +62,12 @@ public class BankingServiceImpl implements BankingService {
     @Override
     public Account createAccount(String accountType, String ownerId) {
         Account account;
+        AccountNumberAllocator numbers = AccountNumberAllocator.getInstance();
         switch (accountType.toLowerCase()) {
-            case "savings" -> account = new SavingsAccount("SAV-" + System.currentTimeMillis(), ownerId);
-            case "checking" -> account = new CheckingAccount("CHK-" + System.currentTimeMillis(), ownerId);
-            case "loan" -> account = new LoanAccount("LOAN-" + System.currentTimeMillis(), ownerId, 0.0);
-            case "investment" -> account = new InvestmentAccount("INV-" + System.currentTimeMillis(), ownerId);
+            case "savings" -> account = new SavingsAccount(numbers.next("SAV"), ownerId);
+            case "checking" -> account = new CheckingAccount(numbers.next("CHK"), ownerId);
+            case "loan" -> account = new LoanAccount(numbers.next("LOAN"), ownerId, 0);
+            case "investment" -> account = new InvestmentAccount(numbers.next("INV"), ownerId);
             default -> throw new IllegalArgumentException("Unknown account type");
         }
         account.persist();
@@ -87,7 +108,7 @@ public class BankingServiceImpl implements BankingService {
     @Override
     public void deleteTeller(String userId) {
         // Add delete method to UserDAO or mark as inactive
-        new UserDAO().deleteUser(userId); // Implement if needed
+        userDAO.deleteUser(userId); // Implement if needed
     }
 
     @Override
@@ -104,4 +125,24 @@ public class BankingServiceImpl implements BankingService {
     public List<Account> getAllAccountsReport() {
         return accountDAO.getAllAccounts();
     }
+
+    @Override
+    public void streamAllTransactionsReport(Consumer<? super Transaction> sink) {
+        transactionDAO.streamAllTransactions(sink);
+    }
+
+    @Override
+    public void streamAllAccountsReport(Consumer<? super Account> sink) {
+        accountDAO.streamAllAccounts(sink);
+    }
+
+    @Override
+    public List<Transaction> getPendingApprovals(int limit) {
+        return PendingApprovalQueue.getInstance().peek(limit);
+    }
+
+    @Override
+    public List<TransactionResult> approvePendingTransactions(List<String> transactionIds) {
+        return transactionService.approvePending(transactionIds);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.bankingSystem.Proxy;
+
+/**
+ * A request that had already started was still running when its deadline passed. It was not
+ * cancelled and may still complete, so the caller cannot tell whether it took effect.
+ * Postings made with an idempotency key can be asked again with the same key: that returns
+ * the original transaction once it committed, and runs it only if it did not.
+ */
+public class OutcomeUnknownException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public OutcomeUnknownException(String message) {
+        super(message);
+    }
+}
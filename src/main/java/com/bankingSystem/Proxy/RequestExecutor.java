@@ -0,0 +1,113 @@
+package com.bankingSystem.Proxy;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs banking requests on virtual threads (Singleton).
+ * Every request gets its own virtual thread, so thousands of sessions can wait on the
+ * database at once without a platform thread each. A semaphore caps how many requests use
+ * the database at the same time (bank.requests.maxConcurrency, default: the pool size), and
+ * every request has a deadline. A request still waiting for a permit at its deadline never
+ * runs and fails with a RejectedExecutionException; one that already started fails with an
+ * OutcomeUnknownException, since it may still complete.
+ */
+public class RequestExecutor {
+    private static RequestExecutor instance;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledThreadPoolExecutor deadlines = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread t = new Thread(r, "request-deadlines");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Semaphore databasePermits;
+    private final Duration defaultTimeout;
+
+    RequestExecutor(int maxConcurrency, Duration defaultTimeout) {
+        this.databasePermits = new Semaphore(maxConcurrency, true);
+        this.defaultTimeout = defaultTimeout;
+        deadlines.setRemoveOnCancelPolicy(true); // most requests finish long before their deadline
+    }
+
+    public static synchronized RequestExecutor getInstance() {
+        if (instance == null) {
+            instance = new RequestExecutor(
+                    Integer.getInteger("bank.requests.maxConcurrency", Integer.getInteger("bank.db.pool.maxSize", 10)),
+                    Duration.ofMillis(Long.getLong("bank.requests.timeoutMs", 30_000L)));
+        }
+        return instance;
+    }
+
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.executor.shutdown();
+            instance.deadlines.shutdownNow();
+            try {
+                instance.executor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            instance = null;
+        }
+    }
+
+    public <T> CompletableFuture<T> submit(Callable<T> request) {
+        return submit(request, defaultTimeout);
+    }
+
+    /**
+     * Runs the request on a new virtual thread once a database permit is free. A request that
+     * has already started is not interrupted on timeout (it may be in the middle of a commit);
+     * only the caller stops waiting for it, with an OutcomeUnknownException.
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> request, Duration timeout) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicBoolean started = new AtomicBoolean();
+        long deadline = System.nanoTime() + timeout.toNanos();
+        executor.execute(() -> {
+            try {
+                if (!databasePermits.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    result.completeExceptionally(noCapacity(timeout));
+                    return;
+                }
+                try {
+                    if (!started.compareAndSet(false, true)) return; // the deadline passed first: never runs
+                    result.complete(request.call());
+                } finally {
+                    databasePermits.release();
+                }
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        });
+        // Whoever sets started first decides: the request runs, or it fails without ever running
+        ScheduledFuture<?> timer = deadlines.schedule(() -> {
+            if (started.compareAndSet(false, true)) {
+                result.completeExceptionally(noCapacity(timeout));
+            } else {
+                result.completeExceptionally(new OutcomeUnknownException("Request still running after "
+                        + timeout.toMillis() + " ms; it was not cancelled and may still complete"));
+            }
+        }, timeout.toNanos(), TimeUnit.NANOSECONDS);
+        result.whenComplete((value, failure) -> timer.cancel(false));
+        return result;
+    }
+
+    private static RejectedExecutionException noCapacity(Duration timeout) {
+        return new RejectedExecutionException("No database capacity within " + timeout.toMillis() + " ms");
+    }
+
+    public int availablePermits() {
+        return databasePermits.availablePermits();
+    }
+}
@@ -4,15 +4,19 @@ package com.bankingSystem.Proxy;
 import com.bankingSystem.Account.Account;
 import com.bankingSystem.user.*;
 import com.bankingSystem.Transaction.Transaction;
+import com.bankingSystem.Transaction.TransactionPage;
+import com.bankingSystem.Transaction.TransactionResult;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public class RoleBasedAccessProxy implements BankingService {
-    private final BankingServiceImpl realService = new BankingServiceImpl();
+    private final BankingServiceImpl realService;
     private final User currentUser; // Set at login
 
     public RoleBasedAccessProxy(User currentUser) {
         this.currentUser = currentUser;
+        this.realService = new BankingServiceImpl(currentUser.getRole());
     }
 
     private void checkPermission(String requiredRole) {
@@ -24,7 +28,7 @@ public class RoleBasedAccessProxy implements BankingService {
 
     // Customer methods
     @Override
-    public void performTransaction(String ownerId, Account from, Account to, double amount, String type) {
+    public void performTransaction(String ownerId, Account from, Account to, long amount, String type) {
         if (currentUser.getRole() == Role.CUSTOMER) {
             if (!currentUser.getUserId().equals(ownerId)) {
                 throw new SecurityException("Customers can only transact on their own accounts");
@@ -33,6 +37,16 @@ public class RoleBasedAccessProxy implements BankingService {
         realService.performTransaction(ownerId, from, to, amount, type);
     }
 
+    @Override
+    public Transaction performTransaction(String ownerId, String idempotencyKey, Account from, Account to, long amount, String type) {
+        if (currentUser.getRole() == Role.CUSTOMER) {
+            if (!currentUser.getUserId().equals(ownerId)) {
+                throw new SecurityException("Customers can only transact on their own accounts");
+            }
+        }
+        return realService.performTransaction(ownerId, idempotencyKey, from, to, amount, type);
+    }
+
     @Override
     public List<Transaction> getTransactionHistory(String ownerId, String accountNumber) {
         if (currentUser.getRole() == Role.CUSTOMER && !currentUser.getUserId().equals(ownerId)) {
@@ -41,6 +55,14 @@ public class RoleBasedAccessProxy implements BankingService {
         return realService.getTransactionHistory(ownerId, accountNumber);
     }
 
+    @Override
+    public TransactionPage getTransactionHistoryPage(String ownerId, String accountNumber, TransactionPage.Cursor after, int pageSize) {
+        if (currentUser.getRole() == Role.CUSTOMER && !currentUser.getUserId().equals(ownerId)) {
+            throw new SecurityException("Customers can only view their own history");
+        }
+        return realService.getTransactionHistoryPage(ownerId, accountNumber, after, pageSize);
+    }
+
     @Override
     public void modifyAccountInfo(String ownerId, Account account, String field, String newValue) {
         if (currentUser.getRole() == Role.CUSTOMER && !currentUser.getUserId().equals(ownerId)) {
@@ -104,4 +126,28 @@ public class RoleBasedAccessProxy implements BankingService {
         checkPermission("MANAGER");
         return realService.getAllAccountsReport();
     }
+
+    @Override
+    public void streamAllTransactionsReport(Consumer<? super Transaction> sink) {
+        checkPermission("MANAGER");
+        realService.streamAllTransactionsReport(sink);
+    }
+
+    @Override
+    public void streamAllAccountsReport(Consumer<? super Account> sink) {
+        checkPermission("MANAGER");
+        realService.streamAllAccountsReport(sink);
+    }
+
+    @Override
+    public List<Transaction> getPendingApprovals(int limit) {
+        checkPermission("MANAGER");
+        return realService.getPendingApprovals(limit);
+    }
+
+    @Override
+    public List<TransactionResult> approvePendingTransactions(List<String> transactionIds) {
+        checkPermission("MANAGER");
+        return realService.approvePendingTransactions(transactionIds);
+    }
 }
\ No newline at end of file
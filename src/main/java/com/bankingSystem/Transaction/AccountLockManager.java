@@ -0,0 +1,112 @@
+package com.bankingSystem.Transaction;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Striped per-account locks (Singleton).
+ * An account number maps to one of a fixed set of locks, so two operations on unrelated
+ * accounts almost never share a lock and run in parallel. Multi-account operations always
+ * take their stripes in ascending index order, which rules out deadlocks between transfers
+ * going in opposite directions.
+ */
+public class AccountLockManager {
+    private static final AccountLockManager INSTANCE = new AccountLockManager(
+            Integer.getInteger("bank.lock.stripes", Runtime.getRuntime().availableProcessors() * 64));
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    AccountLockManager(int requestedStripes) {
+        int size = Integer.highestOneBit(Math.max(16, requestedStripes - 1)) << 1; // next power of two
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    public static AccountLockManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Locks a single account. Null account numbers (e.g. the missing side of a deposit) are ignored.
+     */
+    public Held lock(String accountNumber) {
+        if (accountNumber == null) return new Held(new int[0]);
+        return acquire(new int[]{stripeOf(accountNumber)});
+    }
+
+    /**
+     * Locks both sides of a transfer in a fixed global order.
+     */
+    public Held lock(String first, String second) {
+        if (first == null) return lock(second);
+        if (second == null) return lock(first);
+
+        int a = stripeOf(first);
+        int b = stripeOf(second);
+        if (a == b) return acquire(new int[]{a});
+        return acquire(a < b ? new int[]{a, b} : new int[]{b, a});
+    }
+
+    /**
+     * Locks every account of a multi-account operation (e.g. a batch) in a fixed global order.
+     */
+    public Held lockAll(Collection<String> accountNumbers) {
+        int[] indexes = accountNumbers.stream()
+                .filter(n -> n != null)
+                .mapToInt(this::stripeOf)
+                .distinct()
+                .sorted()
+                .toArray();
+        return acquire(indexes);
+    }
+
+    private int stripeOf(String accountNumber) {
+        int h = accountNumber.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private Held acquire(int[] sortedIndexes) {
+        int acquired = 0;
+        try {
+            for (int index : sortedIndexes) {
+                stripes[index].lock();
+                acquired++;
+            }
+        } catch (RuntimeException | Error e) {
+            release(Arrays.copyOf(sortedIndexes, acquired));
+            throw e;
+        }
+        return new Held(sortedIndexes);
+    }
+
+    private void release(int[] indexes) {
+        for (int i = indexes.length - 1; i >= 0; i--) {
+            stripes[indexes[i]].unlock();
+        }
+    }
+
+    /**
+     * Handle for the locks taken by one operation; release it with close() in a finally block.
+     */
+    public final class Held implements AutoCloseable {
+        private final int[] indexes;
+        private boolean released;
+
+        private Held(int[] indexes) {
+            this.indexes = indexes;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                release(indexes);
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.bankingSystem.Transaction.ChainOfResponsability;
+
+import com.bankingSystem.Transaction.TransactionStatus;
+
+/**
+ * Result of running a transaction through the approval rules. Each decision maps to one
+ * fixed status, so nothing is built per evaluation.
+ */
+public enum ApprovalDecision {
+    AUTO_APPROVE(TransactionStatus.APPROVED_AUTO),
+    TELLER_APPROVE(TransactionStatus.APPROVED_TELLER),
+    MANAGER_APPROVAL(TransactionStatus.PENDING_MANAGER_APPROVAL),
+    REJECT(TransactionStatus.REJECTED);
+
+    private final TransactionStatus status;
+
+    ApprovalDecision(TransactionStatus status) {
+        this.status = status;
+    }
+
+    public TransactionStatus status() {
+        return status;
+    }
+
+    public boolean isApproved() {
+        return status.isApproved();
+    }
+}
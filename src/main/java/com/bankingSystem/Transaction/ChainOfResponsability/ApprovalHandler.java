@@ -1,8 +1,9 @@
 // src/main/java/com/bank/approval/ApprovalHandler.java
 package com.bankingSystem.Transaction.ChainOfResponsability;
 
-
+import com.bankingSystem.Account.Account;
 import com.bankingSystem.Transaction.Transaction;
+import com.bankingSystem.user.Role;
 
 public abstract class ApprovalHandler {
     protected ApprovalHandler nextHandler;
@@ -13,6 +14,14 @@ public abstract class ApprovalHandler {
 
     public abstract void handle(Transaction transaction);
 
+    /**
+     * Variant for handlers that also decide on the account the money leaves (or enters, for a
+     * deposit) and on the requester's role. Either may be null when unknown.
+     */
+    public void handle(Transaction transaction, Account account, Role role) {
+        handle(transaction);
+    }
+
     protected void passToNext(Transaction transaction) {
         if (nextHandler != null) {
             nextHandler.handle(transaction);
@@ -22,4 +31,10 @@ public abstract class ApprovalHandler {
 //            System.out.println("Transaction auto-approved (≤ 5000)");
 //        }
     }
+
+    protected void passToNext(Transaction transaction, Account account, Role role) {
+        if (nextHandler != null) {
+            nextHandler.handle(transaction, account, role);
+        }
+    }
 }
\ No newline at end of file
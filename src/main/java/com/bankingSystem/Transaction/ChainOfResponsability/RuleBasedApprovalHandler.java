@@ -0,0 +1,225 @@
+package com.bankingSystem.Transaction.ChainOfResponsability;
+
+import com.bankingSystem.Account.Account;
+import com.bankingSystem.Account.CheckingAccount;
+import com.bankingSystem.Account.InvestmentAccount;
+import com.bankingSystem.Account.LoanAccount;
+import com.bankingSystem.Account.SavingsAccount;
+import com.bankingSystem.Transaction.Transaction;
+import com.bankingSystem.Transaction.TransactionType;
+import com.bankingSystem.Util.Money;
+import com.bankingSystem.user.Role;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Approval driven by a rule table instead of hard-coded thresholds (Singleton).
+ * Each rule is one line: amount band (in currency units, both ends inclusive, * for open),
+ * transaction types, account types, requester roles (comma lists or *) and the decision.
+ * The first matching rule wins; if none matches the transaction goes to the next handler,
+ * or to a manager when there is none.
+ *
+ * Rules are compiled into parallel arrays, one per column, and evaluated with a plain scan
+ * over primitives, so a decision allocates nothing. reload() compiles a new table and swaps
+ * it in with one volatile write; evaluations already running finish on the old table.
+ * The table is read from bank.approval.rulesFile (default ./config/approval-rules.txt),
+ * or DEFAULT_RULES when that file does not exist.
+ */
+public class RuleBasedApprovalHandler extends ApprovalHandler {
+    private static RuleBasedApprovalHandler instance;
+
+    public static final String DEFAULT_RULES = """
+            # minAmount  maxAmount  transactionTypes  accountTypes  roles  decision
+            0            5000.00    *                 *             *      AUTO_APPROVE
+            5000.01      50000.00   *                 *             *      TELLER_APPROVE
+            50000.01     *          *                 *             *      MANAGER_APPROVAL
+            """;
+
+    private static final String[] ACCOUNT_TYPES = {"SAVINGS", "CHECKING", "LOAN", "INVESTMENT"};
+    private static final int ANY = -1;
+    private static final int UNKNOWN = 1 << 31; // missing account or role, unknown type: only * matches it
+
+    private final Path rulesFile;
+    private volatile RuleTable table;
+
+    // One array per column, one index per rule; never changed once built
+    private static final class RuleTable {
+        final int size;
+        final long[] minAmount;
+        final long[] maxAmount;
+        final int[] transactionTypes;
+        final int[] accountTypes;
+        final int[] roles;
+        final ApprovalDecision[] decisions;
+
+        RuleTable(int size) {
+            this.size = size;
+            this.minAmount = new long[size];
+            this.maxAmount = new long[size];
+            this.transactionTypes = new int[size];
+            this.accountTypes = new int[size];
+            this.roles = new int[size];
+            this.decisions = new ApprovalDecision[size];
+        }
+    }
+
+    RuleBasedApprovalHandler(Path rulesFile) {
+        this.rulesFile = rulesFile;
+        reload();
+    }
+
+    public static synchronized RuleBasedApprovalHandler getInstance() {
+        if (instance == null) {
+            instance = new RuleBasedApprovalHandler(
+                    Paths.get(System.getProperty("bank.approval.rulesFile", "./config/approval-rules.txt")));
+        }
+        return instance;
+    }
+
+    /**
+     * Re-reads the rules file (or the defaults). A file with errors is rejected with an
+     * IllegalArgumentException and the current rules stay in force.
+     */
+    public void reload() {
+        if (rulesFile != null && Files.exists(rulesFile)) {
+            try {
+                load(Files.readAllLines(rulesFile), rulesFile.toString());
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read approval rules " + rulesFile, e);
+            }
+        } else {
+            load(DEFAULT_RULES.lines().toList(), "built-in defaults");
+        }
+    }
+
+    /**
+     * Replaces the rules with the given text, in the rules file format.
+     */
+    public void load(List<String> lines, String source) {
+        table = compile(lines, source);
+        System.out.println("Approval rules loaded: " + table.size + " rules from " + source);
+    }
+
+    public int ruleCount() {
+        return table.size;
+    }
+
+    @Override
+    public void handle(Transaction transaction) {
+        handle(transaction, null, null);
+    }
+
+    @Override
+    public void handle(Transaction transaction, Account account, Role role) {
+        ApprovalDecision decision = decide(transaction.getAmount(), transaction.getType(), account, role);
+        if (decision != null) {
+            transaction.applyDecision(decision);
+        } else if (nextHandler != null) {
+            passToNext(transaction, account, role);
+        } else {
+            transaction.applyDecision(ApprovalDecision.MANAGER_APPROVAL); // nothing matched: let a person look at it
+        }
+    }
+
+    /**
+     * The decision of the first matching rule, or null if none matches.
+     */
+    public ApprovalDecision decide(long amount, TransactionType transactionType, Account account, Role role) {
+        RuleTable rules = table; // one read, so a concurrent reload cannot mix two tables
+        int typeBit = transactionType != null ? 1 << transactionType.ordinal() : UNKNOWN;
+        int accountBit = accountTypeBit(account);
+        int roleBit = role != null ? 1 << role.ordinal() : UNKNOWN;
+        for (int i = 0; i < rules.size; i++) {
+            if (amount >= rules.minAmount[i] && amount <= rules.maxAmount[i]
+                    && (rules.transactionTypes[i] & typeBit) != 0
+                    && (rules.accountTypes[i] & accountBit) != 0
+                    && (rules.roles[i] & roleBit) != 0) {
+                return rules.decisions[i];
+            }
+        }
+        return null;
+    }
+
+    // Same order as ACCOUNT_TYPES
+    private static int accountTypeBit(Account account) {
+        if (account instanceof SavingsAccount) return 1;
+        if (account instanceof CheckingAccount) return 1 << 1;
+        if (account instanceof LoanAccount) return 1 << 2;
+        if (account instanceof InvestmentAccount) return 1 << 3;
+        return UNKNOWN;
+    }
+
+    // ====================== Rule compiler ======================
+
+    private static RuleTable compile(List<String> lines, String source) {
+        List<String[]> rows = new ArrayList<>();
+        List<Integer> lineNumbers = new ArrayList<>();
+        for (int n = 0; n < lines.size(); n++) {
+            String line = lines.get(n).strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            rows.add(line.split("\\s+"));
+            lineNumbers.add(n + 1);
+        }
+
+        RuleTable rules = new RuleTable(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            String[] columns = rows.get(i);
+            try {
+                if (columns.length != 6) throw new IllegalArgumentException("expected 6 columns, found " + columns.length);
+                rules.minAmount[i] = "*".equals(columns[0]) ? Long.MIN_VALUE : Money.parse(columns[0]);
+                rules.maxAmount[i] = "*".equals(columns[1]) ? Long.MAX_VALUE : Money.parse(columns[1]);
+                if (rules.minAmount[i] > rules.maxAmount[i]) throw new IllegalArgumentException("empty amount band");
+                rules.transactionTypes[i] = transactionTypes(columns[2]);
+                rules.accountTypes[i] = names(columns[3], ACCOUNT_TYPES);
+                rules.roles[i] = roles(columns[4]);
+                rules.decisions[i] = ApprovalDecision.valueOf(columns[5].toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Approval rule error in " + source + " line " + lineNumbers.get(i)
+                        + ": " + e.getMessage(), e);
+            }
+        }
+        return rules;
+    }
+
+    private static int names(String column, String[] known) {
+        if ("*".equals(column)) return ANY;
+        int mask = 0;
+        for (String name : column.split(",")) {
+            int index = indexOf(known, name);
+            if (index < 0) throw new IllegalArgumentException("unknown type " + name);
+            mask |= 1 << index;
+        }
+        return mask;
+    }
+
+    private static int transactionTypes(String column) {
+        if ("*".equals(column)) return ANY;
+        int mask = 0;
+        for (String name : column.split(",")) {
+            mask |= 1 << TransactionType.fromString(name).ordinal();
+        }
+        return mask;
+    }
+
+    private static int roles(String column) {
+        if ("*".equals(column)) return ANY;
+        int mask = 0;
+        for (String name : column.split(",")) {
+            mask |= 1 << Role.fromString(name).ordinal();
+        }
+        return mask;
+    }
+
+    private static int indexOf(String[] known, String name) {
+        for (int i = 0; i < known.length; i++) {
+            if (known[i].equalsIgnoreCase(name)) return i;
+        }
+        return -1;
+    }
+}
@@ -2,13 +2,17 @@
 package com.bankingSystem.Transaction;
 
 import com.bankingSystem.Account.Account;
+import com.bankingSystem.Util.Money;
 
 public class DepositStrategy implements TransactionStrategy {
     @Override
-    public void execute(Account from, Account to, double amount, Transaction transaction) {
-        to.deposit(amount);
-        transaction.setStatus("COMPLETED");
+    public void execute(Account from, Account to, long amount, Transaction transaction) {
+        try (UnitOfWork unit = UnitOfWork.begin()) {
+            to.deposit(amount);
+            unit.commit();
+        }
+        transaction.setStatus(TransactionStatus.COMPLETED);
         to.addTransaction(transaction);
-        System.out.println("Deposit completed: +" + amount + " to " + to.getAccountNumber());
+        System.out.println("Deposit completed: +" + Money.format(amount) + " to " + to.getAccountNumber());
     }
 }
\ No newline at end of file
@@ -0,0 +1,198 @@
+package com.bankingSystem.Transaction;
+
+import com.bankingSystem.Database.Storage;
+import com.bankingSystem.Database.TransactionRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Recently used idempotency keys and the transaction each one produced (Singleton).
+ * Memory keeps at most bank.idempotency.maxKeys keys for bank.idempotency.ttlSeconds. A key
+ * that was evicted or recorded before a restart is still found in the IdempotencyKeys table,
+ * which is written in the same commit as the ledger row and purged after the same TTL.
+ * A retry that arrives while the first attempt is still running waits for that attempt and
+ * gets its result, instead of moving the money a second time.
+ *
+ * Keys are scoped per owner, so two customers choosing the same key never see each other's
+ * transaction. A key is also bound to the fingerprint of the request it was first used for;
+ * reusing it for a different request is refused with an IllegalArgumentException.
+ */
+public class IdempotencyIndex {
+    private static IdempotencyIndex instance;
+
+    private static final long PURGE_INTERVAL_MILLIS = 60_000;
+
+    private final Duration ttl;
+    private final int maxKeys;
+    private final Map<ScopedKey, Entry> entries; // insertion order, so the eldest entry is the oldest key
+    private long lastPurgeMillis;
+
+    private record ScopedKey(String ownerId, String key) {
+    }
+
+    private record Entry(long createdMillis, String fingerprint, CompletableFuture<Transaction> result) {
+    }
+
+    /**
+     * Outcome of claim(): the owner runs the request and reports back with complete() or fail();
+     * everyone else gets the original transaction from result().
+     */
+    public record Claim(String ownerId, String key, String fingerprint, CompletableFuture<Transaction> result,
+                        boolean owner) {
+    }
+
+    IdempotencyIndex(Duration ttl, int maxKeys) {
+        this.ttl = ttl;
+        this.maxKeys = maxKeys;
+        this.entries = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ScopedKey, Entry> eldest) {
+                return size() > IdempotencyIndex.this.maxKeys;
+            }
+        };
+    }
+
+    public static synchronized IdempotencyIndex getInstance() {
+        if (instance == null) {
+            instance = new IdempotencyIndex(Duration.ofSeconds(Long.getLong("bank.idempotency.ttlSeconds", 86_400L)),
+                    Integer.getInteger("bank.idempotency.maxKeys", 100_000));
+        }
+        return instance;
+    }
+
+    /**
+     * Identifies a request by what it does, so a key reused for another request is caught.
+     */
+    public static String fingerprint(TransactionType type, String fromAccount, String toAccount, long amount) {
+        String request = type + "|" + fromAccount + "|" + toAccount + "|" + amount;
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(request.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e); // every JVM ships it
+        }
+    }
+
+    public Claim claim(String ownerId, String key, String fingerprint) {
+        ScopedKey scoped = new ScopedKey(ownerId, key);
+        long now = System.currentTimeMillis();
+        CompletableFuture<Transaction> mine = new CompletableFuture<>();
+        synchronized (entries) {
+            evictExpired(now);
+            Entry existing = entries.get(scoped);
+            if (existing != null) {
+                requireSameRequest(key, existing.fingerprint(), fingerprint);
+                return new Claim(ownerId, key, fingerprint, existing.result(), false);
+            }
+            entries.put(scoped, new Entry(now, fingerprint, mine));
+        }
+        purgeTableIfDue(now);
+
+        // Not in memory: it may still be in the table (evicted, or used before a restart)
+        Claim claim = new Claim(ownerId, key, fingerprint, mine, true);
+        Transaction original;
+        try {
+            original = loadRecorded(claim);
+        } catch (IllegalArgumentException e) {
+            release(claim);
+            mine.completeExceptionally(e);
+            throw e;
+        }
+        if (original != null) {
+            mine.complete(original);
+            return new Claim(ownerId, key, fingerprint, mine, false);
+        }
+        return claim;
+    }
+
+    public void complete(Claim claim, Transaction transaction) {
+        claim.result().complete(transaction);
+    }
+
+    /**
+     * Called when the owner's attempt threw. If another process committed the same key for the
+     * same request in the meantime (our insert then hit the primary key) its transaction is
+     * returned; otherwise the key is released so a later retry runs again, and the failure
+     * (or the fingerprint mismatch) is rethrown.
+     */
+    public Transaction fail(Claim claim, RuntimeException failure) {
+        Transaction original;
+        try {
+            original = loadRecorded(claim);
+        } catch (IllegalArgumentException e) {
+            failure = e;
+            original = null;
+        }
+        if (original != null) {
+            claim.result().complete(original);
+            return original;
+        }
+        release(claim);
+        claim.result().completeExceptionally(failure);
+        throw failure;
+    }
+
+    /**
+     * Waits for the attempt that owns the key and returns its transaction.
+     */
+    public static Transaction await(Claim claim) {
+        try {
+            return claim.result().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    private Transaction loadRecorded(Claim claim) {
+        TransactionRepository transactions = Storage.getInstance().transactions();
+        TransactionRepository.IdempotencyRecord recorded =
+                transactions.findIdempotencyKey(claim.ownerId(), claim.key(), LocalDateTime.now().minus(ttl));
+        if (recorded == null) return null;
+        requireSameRequest(claim.key(), recorded.fingerprint(), claim.fingerprint());
+        return transactions.loadTransactionById(recorded.transactionId());
+    }
+
+    private void release(Claim claim) {
+        ScopedKey scoped = new ScopedKey(claim.ownerId(), claim.key());
+        synchronized (entries) {
+            Entry current = entries.get(scoped);
+            if (current != null && current.result() == claim.result()) entries.remove(scoped);
+        }
+    }
+
+    private static void requireSameRequest(String key, String recorded, String requested) {
+        if (!requested.equals(recorded)) {
+            throw new IllegalArgumentException("Idempotency key " + key + " was already used for a different request");
+        }
+    }
+
+    // Entries are in age order, so expired ones are always at the head
+    private void evictExpired(long now) {
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry eldest = it.next();
+            if (now - eldest.createdMillis() < ttl.toMillis() || !eldest.result().isDone()) break;
+            it.remove();
+        }
+    }
+
+    private void purgeTableIfDue(long now) {
+        synchronized (entries) {
+            if (now - lastPurgeMillis < PURGE_INTERVAL_MILLIS) return;
+            lastPurgeMillis = now;
+        }
+        int removed = Storage.getInstance().transactions().deleteIdempotencyKeysBefore(LocalDateTime.now().minus(ttl));
+        if (removed > 0) System.out.println("Expired idempotency keys removed: " + removed);
+    }
+}
@@ -0,0 +1,379 @@
+package com.bankingSystem.Transaction;
+
+import com.bankingSystem.Account.Account;
+import com.bankingSystem.Database.AccountCache;
+import com.bankingSystem.Database.LedgerJournal;
+import com.bankingSystem.Database.Storage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Single-writer execution of money movements on a preallocated ring buffer (Singleton),
+ * in the style of the LMAX Disruptor. Enabled with -Dbank.tx.mode=sequencer.
+ *
+ * Callers claim a slot, fill it and publish it. One sequencer thread applies the slots
+ * strictly in sequence order. It is the only thread that changes balances, so it needs no
+ * account locks and every run over the same requests gives the same result. It changes the
+ * balances in memory and appends them to the ledger journal as a group, without touching the
+ * database. Consumers follow its cursor:
+ * - the journal consumer forces the ledger journal once for everything applied so far, so
+ *   the journal is ahead of the database as in locking mode;
+ * - the persistence consumer follows the journal consumer and writes the balances, rows and
+ *   idempotency keys of everything journaled so far in one database transaction (each
+ *   account's balance once). That commit is the point of commit: only then are the groups
+ *   confirmed in the journal and the callers' futures completed;
+ * - the notification consumer follows the persistence consumer and announces what was stored.
+ * A slot is reused only after every consumer is done with it.
+ *
+ * If a movement cannot be stored (or its journal force failed), it is aborted in the journal
+ * and its caller gets the error. Every movement the sequencer applied after it may rest on
+ * its balances, so they fail the same way. The sequencer then stops, waits until they are all
+ * failed, reloads the affected balances from the database and carries on from there.
+ */
+public class LedgerSequencer implements AutoCloseable {
+    private static LedgerSequencer instance;
+
+    private static final int SPINS_BEFORE_PARK = 100;
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final Slot[] ring;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong(-1);  // last sequence handed to a producer
+    private final AtomicLong applied = new AtomicLong(-1);  // sequencer cursor
+    private final AtomicLong journaled = new AtomicLong(-1); // journal consumer cursor
+    private final AtomicLong notified = new AtomicLong(-1);  // notification consumer cursor
+    private final AtomicLong persisted = new AtomicLong(-1); // persistence consumer cursor
+    private final Map<String, Long> unpersistedBalances = new ConcurrentHashMap<>();
+    private final Set<String> unstoredAccounts = ConcurrentHashMap.newKeySet(); // of failed movements
+    private volatile boolean failing;      // a movement failed to store; the sequencer must resync
+    private volatile long resyncAt = -1;   // last sequence applied before the sequencer stopped for it
+    private final Thread sequencerThread;
+    private final Thread journalThread;
+    private final Thread persistenceThread;
+    private final Thread notificationThread;
+    private volatile boolean running = true;
+
+    /**
+     * What a unit did on the sequencer thread: its journal group (-1 if none), the balances it
+     * left (account number to balance) and its other database writes, which the persistence
+     * consumer runs in the same commit as the balances. writes is null for a unit that already
+     * stored everything itself.
+     */
+    public record Applied(long journalGroup, Map<String, Long> balances, Runnable writes) {
+    }
+
+    /**
+     * Preallocated entry of the ring. Fields are written by the producer before publishing and
+     * by the sequencer before it advances its cursor, so consumers always see a complete slot.
+     */
+    private static final class Slot {
+        volatile long published = -1;
+        Supplier<Applied> unit;  // applies the movement
+        Account from;
+        Account to;
+        Supplier<String> notice; // rendered on the notification thread, off the posting path
+        CompletableFuture<Void> done;
+        Applied applied;         // null if the unit threw
+        RuntimeException failure;
+    }
+
+    LedgerSequencer(int ringSize) {
+        int size = Integer.highestOneBit(Math.max(2, ringSize - 1)) << 1;
+        this.ring = new Slot[size];
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            ring[i] = new Slot();
+        }
+        this.sequencerThread = start("ledger-sequencer", this::runSequencer);
+        this.journalThread = start("ledger-sequencer-journal", this::runJournalConsumer);
+        this.persistenceThread = start("ledger-sequencer-persist", this::runPersistenceConsumer);
+        this.notificationThread = start("ledger-sequencer-notify", this::runNotificationConsumer);
+    }
+
+    public static boolean isEnabled() {
+        return "sequencer".equalsIgnoreCase(System.getProperty("bank.tx.mode", "locking"));
+    }
+
+    public static synchronized LedgerSequencer getInstance() {
+        if (instance == null) {
+            instance = new LedgerSequencer(Integer.getInteger("bank.sequencer.ringSize", 1024));
+        }
+        return instance;
+    }
+
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    /**
+     * Publishes a movement. The future completes once it has been journaled and stored, or
+     * exceptionally with whatever the unit threw or storing it failed with; nothing of the
+     * movement is stored in that case.
+     */
+    public CompletableFuture<Void> publish(Supplier<Applied> unit, Account from, Account to, Supplier<String> notice) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        if (!running) {
+            done.completeExceptionally(new IllegalStateException("Ledger sequencer is shut down"));
+            return done;
+        }
+        long sequence = claimed.incrementAndGet();
+        // Wait until every consumer is done with the slot's previous use
+        int spins = 0;
+        while (sequence - ring.length > notified.get()) { // the notification consumer is the last one
+            spins = idle(spins);
+        }
+        Slot slot = ring[(int) (sequence & mask)];
+        slot.unit = unit;
+        slot.from = from;
+        slot.to = to;
+        slot.notice = notice;
+        slot.done = done;
+        slot.applied = null;
+        slot.failure = null;
+        slot.published = sequence;
+        return done;
+    }
+
+    /**
+     * True on the sequencer thread, which owns every balance and can skip the account locks.
+     */
+    public boolean ownsBalances() {
+        return Thread.currentThread() == sequencerThread;
+    }
+
+    /**
+     * The balance an account was left with by a unit whose database writes are still queued,
+     * or null if its stored balance is current.
+     */
+    public Long unpersistedBalance(String accountNumber) {
+        return unpersistedBalances.get(accountNumber);
+    }
+
+    /**
+     * Stops taking requests and lets the four threads finish what is already published.
+     */
+    @Override
+    public void close() {
+        running = false;
+        for (Thread t : new Thread[]{sequencerThread, journalThread, persistenceThread, notificationThread}) {
+            try {
+                t.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // ====================== Sequencer ======================
+
+    private void runSequencer() {
+        long next = 0;
+        int spins = 0;
+        while (running || next <= claimed.get()) {
+            Slot slot = ring[(int) (next & mask)];
+            if (slot.published != next) {
+                spins = idle(spins);
+                continue;
+            }
+            spins = 0;
+            if (failing) resync(next - 1);
+            try {
+                slot.applied = slot.unit.get();
+                if (slot.applied.writes() != null) unpersistedBalances.putAll(slot.applied.balances());
+            } catch (RuntimeException e) {
+                slot.failure = e;
+            }
+            applied.set(next++);
+        }
+    }
+
+    // Everything up to lastApplied gets failed by the persistence consumer; after that the
+    // stored balances are the truth again for the accounts those movements touched
+    private void resync(long lastApplied) {
+        resyncAt = lastApplied;
+        int spins = 0;
+        while (persisted.get() < lastApplied) {
+            spins = idle(spins);
+        }
+        unpersistedBalances.clear(); // nothing applied after lastApplied is queued
+        for (String accountNumber : unstoredAccounts) {
+            Long stored = Storage.getInstance().accounts().loadBalance(accountNumber);
+            if (stored != null) AccountCache.getInstance().saved(accountNumber, account -> account.loadBalance(stored));
+        }
+        System.err.println("Ledger sequencer reloaded " + unstoredAccounts.size() + " balances after a failed store");
+        unstoredAccounts.clear();
+        resyncAt = -1;
+        failing = false;
+    }
+
+    // ====================== Consumers ======================
+
+    private void runJournalConsumer() {
+        long next = 0;
+        int spins = 0;
+        while (running || next <= claimed.get()) {
+            long available = applied.get();
+            if (available < next) {
+                spins = idle(spins);
+                continue;
+            }
+            spins = 0;
+            // One force covers every movement applied since the last one (group commit)
+            boolean journaledAny = false;
+            for (long s = next; s <= available; s++) {
+                Slot slot = ring[(int) (s & mask)];
+                if (slot.applied != null && slot.applied.journalGroup() >= 0) journaledAny = true;
+            }
+            RuntimeException syncFailure = null;
+            if (journaledAny) {
+                try {
+                    LedgerJournal.getInstance().force();
+                } catch (RuntimeException e) {
+                    syncFailure = e;
+                }
+            }
+            for (long s = next; s <= available; s++) {
+                Slot slot = ring[(int) (s & mask)];
+                if (slot.applied == null) slot.done.completeExceptionally(slot.failure); // nothing was changed
+                else if (slot.applied.writes() == null) slot.done.complete(null);      // stored by the unit itself
+                else if (syncFailure != null) slot.failure = syncFailure;              // must not be stored
+            }
+            journaled.set(available);
+            next = available + 1;
+        }
+    }
+
+    private void runPersistenceConsumer() {
+        long next = 0;
+        int spins = 0;
+        while (running || next <= claimed.get()) {
+            long available = journaled.get();
+            if (available < next) {
+                spins = idle(spins);
+                continue;
+            }
+            spins = 0;
+            List<Slot> pending = new ArrayList<>();
+            for (long s = next; s <= available; s++) {
+                Slot slot = ring[(int) (s & mask)];
+                if (slot.applied == null || slot.applied.writes() == null) continue;
+                if (failing && (resyncAt < 0 || s <= resyncAt)) {
+                    fail(slot, new IllegalStateException("Not stored: an earlier movement failed to store"));
+                } else if (slot.failure != null) {
+                    fail(slot, slot.failure);
+                } else {
+                    pending.add(slot);
+                }
+            }
+            if (!pending.isEmpty()) persist(pending);
+            persisted.set(available);
+            next = available + 1;
+        }
+    }
+
+    // All in one commit; if that fails the slots are tried one by one in order, so a single bad
+    // row only fails its own movement and the ones applied after it
+    private void persist(List<Slot> slots) {
+        try {
+            store(slots);
+        } catch (RuntimeException e) {
+            if (slots.size() == 1) {
+                System.err.println("Error storing sequenced movement (journal group " + slots.get(0).applied.journalGroup()
+                        + "): " + e.getMessage());
+                fail(slots.get(0), e);
+                return;
+            }
+            for (Slot slot : slots) {
+                if (failing) fail(slot, new IllegalStateException("Not stored: an earlier movement failed to store"));
+                else persist(List.of(slot));
+            }
+        }
+    }
+
+    // The movement is not in the database and never will be: cancel its group and report it
+    private void fail(Slot slot, RuntimeException e) {
+        failing = true;
+        slot.failure = e;
+        unstoredAccounts.addAll(slot.applied.balances().keySet());
+        if (slot.applied.journalGroup() >= 0) {
+            try {
+                LedgerJournal.getInstance().appendAbort(slot.applied.journalGroup());
+            } catch (RuntimeException journalError) {
+                System.err.println("Error aborting journal group " + slot.applied.journalGroup() + ": " + journalError.getMessage());
+            }
+        }
+        slot.done.completeExceptionally(e);
+    }
+
+    private void store(List<Slot> slots) {
+        Map<String, Long> balances = new HashMap<>();
+        for (Slot slot : slots) {
+            balances.putAll(slot.applied.balances()); // later slots win, so each account is written once
+        }
+        Storage.getInstance().inTransaction(() -> {
+            if (!balances.isEmpty()) Storage.getInstance().accounts().storeBalances(balances);
+            for (Slot slot : slots) {
+                slot.applied.writes().run();
+            }
+            return null;
+        });
+        LedgerJournal journal = LedgerJournal.getInstance();
+        for (Slot slot : slots) {
+            if (slot.applied.journalGroup() >= 0) journal.groupCommitted(slot.applied.journalGroup());
+            slot.applied.balances().forEach(unpersistedBalances::remove); // unless a later unit changed it again
+            slot.done.complete(null);
+        }
+    }
+
+    private void runNotificationConsumer() {
+        long next = 0;
+        int spins = 0;
+        while (running || next <= claimed.get()) {
+            long available = persisted.get();
+            if (available < next) {
+                spins = idle(spins);
+                continue;
+            }
+            spins = 0;
+            for (long s = next; s <= available; s++) {
+                Slot slot = ring[(int) (s & mask)];
+                if (slot.failure != null || (slot.from == null && slot.to == null)) continue;
+                String notice = slot.notice.get();
+                if (slot.from != null) slot.from.notifyObservers(notice);
+                if (slot.to != null && slot.to != slot.from) slot.to.notifyObservers(notice);
+            }
+            notified.set(available);
+            next = available + 1;
+        }
+    }
+
+    // Busy-spin briefly for low latency, then park so an idle sequencer does not burn a core
+    private static int idle(int spins) {
+        if (spins < SPINS_BEFORE_PARK) {
+            Thread.onSpinWait();
+            return spins + 1;
+        }
+        LockSupport.parkNanos(PARK_NANOS);
+        return spins;
+    }
+
+    private static Thread start(String name, Runnable loop) {
+        Thread t = new Thread(loop, name);
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+}
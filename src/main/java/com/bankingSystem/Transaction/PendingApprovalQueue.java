@@ -0,0 +1,97 @@
+package com.bankingSystem.Transaction;
+
+import com.bankingSystem.Database.Storage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Transactions waiting for a manager, as a priority queue: largest amount first, and the
+ * oldest first among equal amounts (Singleton). It is filled once from the status index on
+ * first use and then kept current by TransactionService, so listing and taking work never
+ * scans the ledger.
+ *
+ * The queue is a concurrent skip list rather than a heap, so the head can be listed in order
+ * and any entry removed in O(log n). The id map decides ownership within this process:
+ * whoever removes an id from it has taken that transaction. Another process has its own
+ * queue, so the ledger row's status has the final word (see TransactionService.approvePending).
+ */
+public class PendingApprovalQueue {
+    private static PendingApprovalQueue instance;
+
+    public static final Comparator<Transaction> PRIORITY = Comparator
+            .comparingLong(Transaction::getAmount).reversed()
+            .thenComparingLong(Transaction::getTimestamp)
+            .thenComparing(Transaction::getTransactionId);
+
+    private final ConcurrentSkipListSet<Transaction> queue = new ConcurrentSkipListSet<>(PRIORITY);
+    private final Map<String, Transaction> byId = new ConcurrentHashMap<>();
+
+    PendingApprovalQueue() {
+    }
+
+    public static synchronized PendingApprovalQueue getInstance() {
+        if (instance == null) {
+            PendingApprovalQueue loaded = new PendingApprovalQueue();
+            Storage.getInstance().transactions().loadPendingTransactions().forEach(loaded::add);
+            instance = loaded;
+        }
+        return instance;
+    }
+
+    public void add(Transaction tx) {
+        if (byId.putIfAbsent(tx.getTransactionId(), tx) == null) {
+            queue.add(tx);
+        }
+    }
+
+    /**
+     * The first limit transactions in priority order, without taking them.
+     */
+    public List<Transaction> peek(int limit) {
+        List<Transaction> head = new ArrayList<>(Math.min(limit, queue.size()));
+        for (Transaction tx : queue) {
+            if (head.size() == limit) break;
+            head.add(tx);
+        }
+        return head;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Removes and returns the listed transactions that are still waiting, in priority order.
+     */
+    public List<Transaction> take(Collection<String> transactionIds) {
+        List<Transaction> taken = new ArrayList<>(transactionIds.size());
+        for (String id : transactionIds) {
+            Transaction tx = byId.remove(id);
+            if (tx != null) {
+                queue.remove(tx);
+                taken.add(tx);
+            }
+        }
+        taken.sort(PRIORITY);
+        return taken;
+    }
+
+    /**
+     * Removes and returns up to count transactions from the head of the queue.
+     */
+    public List<Transaction> takeTop(int count) {
+        List<Transaction> taken = new ArrayList<>(Math.min(count, queue.size()));
+        while (taken.size() < count) {
+            Transaction tx = queue.pollFirst();
+            if (tx == null) break;
+            if (byId.remove(tx.getTransactionId(), tx)) taken.add(tx);
+        }
+        return taken;
+    }
+}
@@ -0,0 +1,153 @@
+package com.bankingSystem.Transaction;
+
+import com.bankingSystem.Account.Account;
+import com.bankingSystem.Util.Money;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * A future-dated or recurring transaction, run by the StandingOrderEngine.
+ * Occurrence k is due at firstDue plus k days, weeks or months (always counted from firstDue,
+ * so a monthly order on the 31st comes back to the 31st after a short month), plus a fixed
+ * per-order jitter. nextDue already includes the jitter; it is what the engine schedules on.
+ */
+public class StandingOrder {
+
+    public enum Recurrence {
+        ONCE(0), DAILY(1), WEEKLY(2), MONTHLY(3);
+
+        private final int code;
+
+        Recurrence(int code) {
+            this.code = code;
+        }
+
+        public int code() {
+            return code;
+        }
+
+        public static Recurrence fromCode(int code) {
+            for (Recurrence recurrence : values()) {
+                if (recurrence.code == code) return recurrence;
+            }
+            throw new IllegalArgumentException("Unknown recurrence code: " + code);
+        }
+    }
+
+    public enum Status {
+        ACTIVE(0), COMPLETED(1), CANCELLED(2);
+
+        private final int code;
+
+        Status(int code) {
+            this.code = code;
+        }
+
+        public int code() {
+            return code;
+        }
+
+        public static Status fromCode(int code) {
+            for (Status status : values()) {
+                if (status.code == code) return status;
+            }
+            throw new IllegalArgumentException("Unknown standing order status code: " + code);
+        }
+    }
+
+    private final String orderId;
+    private final TransactionType type; // TRANSFER, WITHDRAW or DEPOSIT
+    private final String fromAccount;
+    private final String toAccount;
+    private final long amount; // minor units (cents)
+    private final Recurrence recurrence;
+    private final long firstDue; // epoch milliseconds, without jitter
+    private final long jitter; // milliseconds added to every occurrence
+    private int occurrence; // index of the next occurrence to run
+    private long nextDue; // epoch milliseconds, with jitter
+    private Status status;
+
+    public StandingOrder(String orderId, TransactionType type, String fromAccount, String toAccount, long amount,
+                         Recurrence recurrence, long firstDue, long jitter) {
+        this(orderId, type, fromAccount, toAccount, amount, recurrence, firstDue, jitter, 0, firstDue + jitter, Status.ACTIVE);
+    }
+
+    // For loading from the database
+    public StandingOrder(String orderId, TransactionType type, String fromAccount, String toAccount, long amount,
+                         Recurrence recurrence, long firstDue, long jitter, int occurrence, long nextDue, Status status) {
+        this.orderId = orderId;
+        this.type = type;
+        this.fromAccount = fromAccount;
+        this.toAccount = toAccount;
+        this.amount = amount;
+        this.recurrence = recurrence;
+        this.firstDue = firstDue;
+        this.jitter = jitter;
+        this.occurrence = occurrence;
+        this.nextDue = nextDue;
+        this.status = status;
+    }
+
+    /**
+     * Moves to the following occurrence after one ran (whatever its outcome); a one-off order
+     * completes instead.
+     */
+    public void advance() {
+        occurrence++;
+        if (recurrence == Recurrence.ONCE) {
+            status = Status.COMPLETED;
+            return;
+        }
+        LocalDateTime anchor = LocalDateTime.ofInstant(Instant.ofEpochMilli(firstDue), ZoneId.systemDefault());
+        LocalDateTime due = switch (recurrence) {
+            case DAILY -> anchor.plusDays(occurrence);
+            case WEEKLY -> anchor.plusWeeks(occurrence);
+            case MONTHLY -> anchor.plusMonths(occurrence);
+            case ONCE -> anchor;
+        };
+        nextDue = due.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + jitter;
+    }
+
+    public StandingOrder copy() {
+        return new StandingOrder(orderId, type, fromAccount, toAccount, amount, recurrence, firstDue, jitter,
+                occurrence, nextDue, status);
+    }
+
+    public void cancel() {
+        status = Status.CANCELLED;
+    }
+
+    public boolean isActive() {
+        return status == Status.ACTIVE;
+    }
+
+    /**
+     * The request this occurrence sends to TransactionService.
+     */
+    public TransactionRequest toRequest(Account from, Account to) {
+        return new TransactionRequest(from, to, amount, type.name());
+    }
+
+    public String getOrderId() { return orderId; }
+    public TransactionType getType() { return type; }
+    public String getFromAccount() { return fromAccount; }
+    public String getToAccount() { return toAccount; }
+    public long getAmount() { return amount; }
+    public Recurrence getRecurrence() { return recurrence; }
+    public long getFirstDue() { return firstDue; }
+    public long getJitter() { return jitter; }
+    public int getOccurrence() { return occurrence; }
+    public long getNextDue() { return nextDue; }
+    public Status getStatus() { return status; }
+
+    @Override
+    public String toString() {
+        return String.format("%s | %s %s from %s to %s | %s | next %s | %s", orderId, type,
+                Money.format(amount), fromAccount != null ? fromAccount : "-",
+                toAccount != null ? toAccount : "-", recurrence,
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(nextDue), ZoneId.systemDefault()).toString().replace("T", " "),
+                status);
+    }
+}
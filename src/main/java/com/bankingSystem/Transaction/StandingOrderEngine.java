@@ -0,0 +1,302 @@
+package com.bankingSystem.Transaction;
+
+import com.bankingSystem.Account.Account;
+import com.bankingSystem.Database.AccountRepository;
+import com.bankingSystem.Database.StandingOrderRepository;
+import com.bankingSystem.Database.Storage;
+import com.bankingSystem.Util.Ids;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs standing orders and future-dated transactions (Singleton).
+ *
+ * Only the orders due within bank.standingOrders.horizonMs (default 10 minutes) are in memory,
+ * in a hierarchical TimingWheel; the rest stay in the StandingOrders table. Every tick
+ * (bank.standingOrders.tickMs, default 1 s) the engine reads the next page of the due index
+ * after the last order it loaded, so millions of schedules are loaded a little at a time
+ * ahead of their due time, never all at once.
+ *
+ * Due orders fire through TransactionService.processBatch in groups of
+ * bank.standingOrders.batchSize, and each order's move to its next occurrence is written in
+ * the same commit, so an occurrence can neither run twice nor be lost. Orders that were due
+ * while the application was down are found by the first load and run straight away, one
+ * missed occurrence per tick. Every order carries a fixed jitter below
+ * bank.standingOrders.jitterMs (default 60 s), so the orders of the first of the month are
+ * spread over a minute instead of all firing in the same millisecond.
+ *
+ * All wheel work, firing and cancelling happens on the engine's single thread.
+ */
+public class StandingOrderEngine {
+    private static StandingOrderEngine instance;
+
+    private static final Comparator<StandingOrder> DUE_ORDER =
+            Comparator.comparingLong(StandingOrder::getNextDue).thenComparing(StandingOrder::getOrderId);
+
+    private final StandingOrderRepository orders = Storage.getInstance().standingOrders();
+    private final AccountRepository accounts = Storage.getInstance().accounts();
+    private final TransactionService transactionService = new TransactionService();
+    private final long tickMillis;
+    private final long horizonMillis;
+    private final long jitterMillis;
+    private final long retryMillis;
+    private final int loadPageSize;
+    private final int batchSize;
+
+    // Engine thread only
+    private final TimingWheel<StandingOrder> wheel;
+    private final Map<String, StandingOrder> scheduled = new HashMap<>(); // orders in the wheel or in overdue
+    private final ArrayDeque<StandingOrder> overdue = new ArrayDeque<>();
+    private long loadedDue = Long.MIN_VALUE; // keyset position (nextDue, orderId) of the last order loaded
+    private String loadedId = "";
+
+    private ScheduledExecutorService executor;
+
+    StandingOrderEngine(long tickMillis, int wheelSize, long horizonMillis, long jitterMillis, long retryMillis,
+                        int loadPageSize, int batchSize, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.horizonMillis = horizonMillis;
+        this.jitterMillis = jitterMillis;
+        this.retryMillis = retryMillis;
+        this.loadPageSize = loadPageSize;
+        this.batchSize = batchSize;
+        this.wheel = new TimingWheel<>(tickMillis, wheelSize, startMillis);
+    }
+
+    public static synchronized StandingOrderEngine getInstance() {
+        if (instance == null) {
+            instance = new StandingOrderEngine(
+                    Long.getLong("bank.standingOrders.tickMs", 1_000L),
+                    Integer.getInteger("bank.standingOrders.wheelSize", 512),
+                    Long.getLong("bank.standingOrders.horizonMs", 600_000L),
+                    Long.getLong("bank.standingOrders.jitterMs", 60_000L),
+                    Long.getLong("bank.standingOrders.retryMs", 30_000L),
+                    Integer.getInteger("bank.standingOrders.loadPageSize", 10_000),
+                    Integer.getInteger("bank.standingOrders.batchSize", 500),
+                    System.currentTimeMillis());
+            instance.start();
+        }
+        return instance;
+    }
+
+    public static synchronized void shutdown() {
+        if (instance != null) {
+            instance.stop();
+            instance = null;
+        }
+    }
+
+    synchronized void start() {
+        if (executor != null) return;
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "standing-orders");
+            t.setDaemon(true);
+            return t;
+        });
+        executor.scheduleWithFixedDelay(this::tickQuietly, 0, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void stop() {
+        synchronized (this) {
+            if (executor == null) return;
+            executor.shutdown();
+        }
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ====================== Public API ======================
+
+    /**
+     * Stores a new order. Its first occurrence is due at firstDue (plus the order's jitter);
+     * a firstDue in the past runs on the next tick.
+     */
+    public StandingOrder schedule(TransactionType type, String fromAccount, String toAccount, long amount,
+                                  StandingOrder.Recurrence recurrence, LocalDateTime firstDue) {
+        if (amount <= 0) throw new IllegalArgumentException("Amount must be positive");
+        if (recurrence == null || firstDue == null) throw new IllegalArgumentException("Missing schedule");
+        switch (type) {
+            case TRANSFER -> {
+                if (fromAccount == null || toAccount == null) throw new IllegalArgumentException("Transfer needs both accounts");
+                if (fromAccount.equals(toAccount)) throw new IllegalArgumentException("Cannot transfer to the same account");
+            }
+            case WITHDRAW -> {
+                if (fromAccount == null) throw new IllegalArgumentException("Withdrawal needs a source account");
+            }
+            case DEPOSIT -> {
+                if (toAccount == null) throw new IllegalArgumentException("Deposit needs a target account");
+            }
+            default -> throw new IllegalArgumentException("Standing orders cannot be of type " + type);
+        }
+
+        String orderId = Ids.next();
+        long jitter = jitterMillis > 0 ? Math.floorMod(orderId.hashCode(), jitterMillis) : 0;
+        StandingOrder order = new StandingOrder(orderId, type, fromAccount, toAccount, amount, recurrence,
+                firstDue.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), jitter);
+        onEngineThread(() -> {
+            // Saved on the engine thread, so a load cannot pick it up before we decide who places it
+            orders.saveStandingOrder(order);
+            if (isLoaded(order)) place(order); // otherwise the next load finds it
+            return null;
+        });
+        return order;
+    }
+
+    /**
+     * Cancels an active order; occurrences already run stay done. Returns false if the order
+     * does not exist or is not active.
+     */
+    public boolean cancel(String orderId) {
+        return onEngineThread(() -> {
+            boolean cancelled = orders.cancelStandingOrder(orderId);
+            StandingOrder inMemory = scheduled.get(orderId);
+            if (cancelled && inMemory != null) inMemory.cancel(); // skipped when it comes due
+            return cancelled;
+        });
+    }
+
+    public StandingOrder findOrder(String orderId) {
+        return orders.loadStandingOrder(orderId);
+    }
+
+    public List<StandingOrder> ordersFor(String accountNumber) {
+        return orders.loadStandingOrdersForAccount(accountNumber);
+    }
+
+    // ====================== Engine thread ======================
+
+    private void tickQuietly() {
+        try {
+            tick(System.currentTimeMillis());
+        } catch (RuntimeException e) {
+            System.err.println("Standing order tick failed: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * One step: load the next page of the window, then fire whatever is due at now.
+     */
+    void tick(long now) {
+        load(now + horizonMillis);
+
+        List<StandingOrder> due = new ArrayList<>(overdue);
+        overdue.clear();
+        wheel.advance(now, due::add);
+        if (due.isEmpty()) return;
+
+        due.sort(DUE_ORDER);
+        for (int start = 0; start < due.size(); start += batchSize) {
+            fire(due.subList(start, Math.min(start + batchSize, due.size())), now);
+        }
+    }
+
+    // One page per tick keeps catch-up after a long downtime from loading everything at once
+    private void load(long dueBefore) {
+        List<StandingOrder> page = orders.loadDueStandingOrders(dueBefore, loadedDue, loadedId, loadPageSize);
+        for (StandingOrder order : page) {
+            loadedDue = order.getNextDue();
+            loadedId = order.getOrderId();
+            if (!scheduled.containsKey(order.getOrderId())) place(order);
+        }
+    }
+
+    private void place(StandingOrder order) {
+        scheduled.put(order.getOrderId(), order);
+        if (!wheel.add(order.getNextDue(), order)) overdue.add(order);
+    }
+
+    // True if the order is at or before the load position, so the loader will not read it again
+    private boolean isLoaded(StandingOrder order) {
+        return order.getNextDue() < loadedDue
+                || (order.getNextDue() == loadedDue && order.getOrderId().compareTo(loadedId) <= 0);
+    }
+
+    private void fire(List<StandingOrder> batch, long now) {
+        List<StandingOrder> running = new ArrayList<>(batch.size());
+        List<StandingOrder> advanced = new ArrayList<>(batch.size());
+        List<TransactionRequest> requests = new ArrayList<>(batch.size());
+        Map<String, Account> loaded = new HashMap<>();
+        for (StandingOrder order : batch) {
+            if (!order.isActive()) { // cancelled while it waited
+                scheduled.remove(order.getOrderId());
+                continue;
+            }
+            Account from = order.getFromAccount() != null ? loaded.computeIfAbsent(order.getFromAccount(), accounts::loadAccount) : null;
+            Account to = order.getToAccount() != null ? loaded.computeIfAbsent(order.getToAccount(), accounts::loadAccount) : null;
+            requests.add(order.toRequest(from, to));
+            StandingOrder next = order.copy();
+            next.advance(); // the occurrence counts as run whatever its outcome, like a bank's standing order
+            running.add(order);
+            advanced.add(next);
+        }
+        if (requests.isEmpty()) return;
+
+        List<TransactionResult> results;
+        try {
+            results = transactionService.processBatch(requests, () -> orders.updateStandingOrders(advanced));
+        } catch (RuntimeException e) {
+            // Nothing was committed: try the same occurrences again later
+            System.err.println("Standing orders not run, retrying in " + retryMillis + " ms: " + e.getMessage());
+            for (StandingOrder order : running) {
+                if (!wheel.add(now + retryMillis, order)) overdue.add(order);
+            }
+            return;
+        }
+
+        int completed = 0;
+        for (int i = 0; i < running.size(); i++) {
+            TransactionResult result = results.get(i);
+            if (result.isCompleted()) {
+                completed++;
+            } else {
+                System.out.println("Standing order " + running.get(i).getOrderId() + " occurrence "
+                        + running.get(i).getOccurrence() + ": " + result.outcome() + " " + result.message());
+            }
+            StandingOrder next = advanced.get(i);
+            scheduled.remove(next.getOrderId());
+            if (next.isActive() && isLoaded(next)) place(next);
+        }
+        System.out.printf("Standing orders run: %d, %d completed%n", running.size(), completed);
+    }
+
+    private <T> T onEngineThread(Callable<T> work) {
+        ScheduledExecutorService engineThread;
+        synchronized (this) {
+            engineThread = executor;
+        }
+        try {
+            if (engineThread == null) return work.call(); // not started (tests drive tick() themselves)
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return work.call();
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, engineThread).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
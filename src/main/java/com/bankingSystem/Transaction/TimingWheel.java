@@ -0,0 +1,115 @@
+package com.bankingSystem.Transaction;
+
+import java.util.ArrayDeque;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: O(1) to add an entry and O(1) per tick to find the due ones,
+ * however many entries there are. Each level is a ring of wheelSize buckets of tickMillis;
+ * an entry too far ahead for one level goes to the next one, whose tick is the whole span of
+ * the level below, and is moved down when its bucket comes round. Levels are created on demand.
+ *
+ * Not thread-safe: the StandingOrderEngine only uses it from its own thread.
+ */
+final class TimingWheel<T> {
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long intervalMillis;
+    private final ArrayDeque<Entry<T>>[] buckets;
+    private final TimingWheel<T> root;
+    private TimingWheel<T> overflow;
+    private long currentTime; // start of the tick not yet passed, a multiple of tickMillis
+    private int size; // entries in the whole hierarchy, kept on the root only
+
+    private record Entry<T>(long dueMillis, T value) {
+    }
+
+    TimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        this(tickMillis, wheelSize, startMillis, null);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"}) // generic array creation
+    private TimingWheel(long tickMillis, int wheelSize, long startMillis, TimingWheel<T> root) {
+        if (tickMillis <= 0 || wheelSize < 2) throw new IllegalArgumentException("Invalid timing wheel shape");
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.intervalMillis = Math.multiplyExact(tickMillis, (long) wheelSize);
+        this.buckets = new ArrayDeque[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayDeque<>();
+        }
+        this.root = root != null ? root : this;
+        this.currentTime = startMillis - Math.floorMod(startMillis, tickMillis);
+    }
+
+    /**
+     * Schedules the value; returns false, without keeping it, if it is already due.
+     */
+    boolean add(long dueMillis, T value) {
+        if (!place(new Entry<>(dueMillis, value))) return false;
+        size++;
+        return true;
+    }
+
+    /**
+     * Passes every tick up to nowMillis and hands the entries that became due to the sink,
+     * in due order between ticks. An entry fires at most one tick late.
+     */
+    void advance(long nowMillis, Consumer<T> sink) {
+        if (size == 0) {
+            skipTo(nowMillis); // nothing to fire, no need to walk the empty buckets
+            return;
+        }
+        while (currentTime + tickMillis <= nowMillis) {
+            ArrayDeque<Entry<T>> bucket = buckets[slot(currentTime)];
+            while (!bucket.isEmpty()) {
+                size--;
+                sink.accept(bucket.poll().value());
+            }
+            currentTime += tickMillis;
+            if (overflow != null) overflow.cascade(currentTime);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long currentTime() {
+        return currentTime;
+    }
+
+    private boolean place(Entry<T> entry) {
+        if (this == root && entry.dueMillis() < currentTime) return false;
+        if (entry.dueMillis() < currentTime + intervalMillis) {
+            buckets[slot(entry.dueMillis())].add(entry);
+            return true;
+        }
+        if (overflow == null) {
+            overflow = new TimingWheel<>(intervalMillis, wheelSize, currentTime, root);
+        }
+        return overflow.place(entry);
+    }
+
+    // Called when the level below reached time: empties the bucket that now starts, back into the root
+    private void cascade(long time) {
+        while (currentTime + tickMillis <= time) {
+            currentTime += tickMillis;
+            if (overflow != null) overflow.cascade(currentTime);
+            ArrayDeque<Entry<T>> bucket = buckets[slot(currentTime)];
+            while (!bucket.isEmpty()) {
+                root.place(bucket.poll()); // due no earlier than currentTime, so it fits a lower level
+            }
+        }
+    }
+
+    private void skipTo(long nowMillis) {
+        long target = nowMillis - Math.floorMod(nowMillis, tickMillis);
+        if (target > currentTime) currentTime = target;
+        if (overflow != null) overflow.skipTo(currentTime);
+    }
+
+    private int slot(long timeMillis) {
+        return (int) Math.floorMod(timeMillis / tickMillis, (long) wheelSize);
+    }
+}
@@ -1,41 +1,54 @@
 // src/main/java/com/bank/transaction/Transaction.java
 package com.bankingSystem.Transaction;
 
+import com.bankingSystem.Transaction.ChainOfResponsability.ApprovalDecision;
+import com.bankingSystem.Util.Ids;
+import com.bankingSystem.Util.Money;
+
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.UUID;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 
+/**
+ * One ledger entry. Type and status are enums and the time is epoch milliseconds, matching the
+ * compact columns of the Transactions table. The description is not stored: getDescription()
+ * renders it from the fields when something is displayed or exported. Only the optional note
+ * (a failure reason, "frozen account", ...) is kept as text.
+ */
 public class Transaction {
-    private String transactionId;
-    private String type; // DEPOSIT, WITHDRAW, TRANSFER_IN, TRANSFER_OUT, LOAN_PAYMENT, INTEREST
-    private double amount;
-    private LocalDateTime timestamp;
+    private static final DateTimeFormatter DISPLAY_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")
+            .withZone(ZoneId.systemDefault());
+
+    private final String transactionId;
+    private final TransactionType type;
+    private final long amount; // minor units (cents)
+    private final long timestamp; // epoch milliseconds
     private String fromAccount;
     private String toAccount;
-    private String status; // PENDING, APPROVED, REJECTED, COMPLETED
-    private String description;    // ====================== Original Constructors (unchanged) ======================
+    private TransactionStatus status;
+    private String note; // null for most entries
+    // ====================== Original Constructors (unchanged) ======================
 
 
-    public Transaction(String type, double amount) {
-        this.transactionId = UUID.randomUUID().toString();
+    public Transaction(TransactionType type, long amount) {
+        this.transactionId = Ids.next();
         this.type = type;
         this.amount = amount;
-        this.timestamp = LocalDateTime.now();
-        this.status = "PENDING";
-        this.description = type + " of " + String.format("%.2f", amount);
+        this.timestamp = System.currentTimeMillis();
+        this.status = TransactionStatus.PENDING;
     }
 
-    public Transaction(String type, double amount, String fromAccount, String toAccount) {
+    public Transaction(TransactionType type, long amount, String fromAccount, String toAccount) {
         this(type, amount);
         this.fromAccount = fromAccount;
         this.toAccount = toAccount;
-        this.description = String.format("%s %.2f from %s to %s", type, amount,
-                fromAccount != null ? fromAccount : "-", toAccount != null ? toAccount : "-");
     }
 
     // ====================== NEW Constructor for DAO loading (from DB) ======================
     // هذا المُنشئ للاستخدام داخلي فقط عند تحميل البيانات من قاعدة البيانات
-    public Transaction(String transactionId, String type, double amount, LocalDateTime timestamp,
-                       String fromAccount, String toAccount, String status, String description) {
+    public Transaction(String transactionId, TransactionType type, long amount, long timestamp,
+                       String fromAccount, String toAccount, TransactionStatus status, String note) {
         this.transactionId = transactionId;
         this.type = type;
         this.amount = amount;
@@ -43,43 +56,78 @@ public class Transaction {
         this.fromAccount = fromAccount;
         this.toAccount = toAccount;
         this.status = status;
-        this.description = description;
+        this.note = note;
     }
 
     // ====================== Setters ======================
-    public void setStatus(String status) {
+    public void setStatus(TransactionStatus status) {
+        this.status = status;
+    }
+
+    /**
+     * Sets the status together with its reason, e.g. FAILED and "Insufficient funds".
+     */
+    public void setStatus(TransactionStatus status, String note) {
         this.status = status;
+        this.note = note;
+    }
+
+    public void setNote(String note) {
+        this.note = note;
+    }
+
+    public void applyDecision(ApprovalDecision decision) {
+        this.status = decision.status();
     }
 
     // ====================== Helper Methods ======================
     public boolean isApproved() {
-        return status != null && (status.startsWith("APPROVED") || "COMPLETED".equals(status));
+        return status.isApproved();
+    }
+
+    public boolean isRejected() {
+        return status == TransactionStatus.REJECTED || status == TransactionStatus.REJECTED_BY_MANAGER;
     }
 
     public boolean isPendingManagerApproval() {
-        return "PENDING_MANAGER_APPROVAL".equals(status);
+        return status == TransactionStatus.PENDING_MANAGER_APPROVAL;
     }
 
     // ====================== Getters ======================
     public String getTransactionId() { return transactionId; }
-    public String getType() { return type; }
-    public double getAmount() { return amount; }
-    public LocalDateTime getTimestamp() { return timestamp; }
+    public TransactionType getType() { return type; }
+    public long getAmount() { return amount; }
+    public long getTimestamp() { return timestamp; }
     public String getFromAccount() { return fromAccount; }
     public String getToAccount() { return toAccount; }
-    public String getStatus() { return status; }
-    public String getDescription() { return description; }
+    public TransactionStatus getStatus() { return status; }
+    public String getNote() { return note; }
+
+    public LocalDateTime getDateTime() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault());
+    }
+
+    /**
+     * Human-readable text, built on each call; nothing on the posting path needs it.
+     */
+    public String getDescription() {
+        String text = fromAccount == null && toAccount == null
+                ? type.label() + " of " + Money.format(amount)
+                : type + " " + Money.format(amount) + " from " + (fromAccount != null ? fromAccount : "-")
+                        + " to " + (toAccount != null ? toAccount : "-");
+        return note != null ? text + " (" + note + ")" : text;
+    }
 
     // ====================== toString ======================
     @Override
     public String toString() {
-        return String.format("[%s] %s | %.2f | %s → %s | Status: %-25s | %s",
-                timestamp.toString().substring(0, 19).replace("T", " "),
+        return String.format("[%s] %s | %s | %s → %s | Status: %-25s | %s",
+                DISPLAY_TIME.format(Instant.ofEpochMilli(timestamp)),
                 type,
-                amount,
+                Money.format(amount),
                 fromAccount != null ? fromAccount : "-",
                 toAccount != null ? toAccount : "-",
                 status,
-                description);
+                getDescription());
     }
-}
\ No newline at end of file
+}
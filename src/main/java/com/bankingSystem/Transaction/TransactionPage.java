@@ -0,0 +1,24 @@
+package com.bankingSystem.Transaction;
+
+import java.util.List;
+
+/**
+ * One page of an account's history (newest first) plus the cursor to fetch the next one.
+ * The cursor is the (timestamp, transactionId) of the last row shown, so the next query seeks
+ * straight past it instead of skipping rows with OFFSET.
+ */
+public record TransactionPage(List<Transaction> transactions, Cursor nextCursor) {
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    /**
+     * timestamp is in epoch milliseconds, like Transaction.getTimestamp().
+     */
+    public record Cursor(long timestamp, String transactionId) {
+        public static Cursor after(Transaction last) {
+            return new Cursor(last.getTimestamp(), last.getTransactionId());
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.bankingSystem.Transaction;
+
+import com.bankingSystem.Account.Account;
+
+/**
+ * One item of a TransactionService.processBatch() call, with the same arguments as
+ * processTransaction(). Deposits only need "to", withdrawals only "from".
+ */
+public record TransactionRequest(Account from, Account to, long amount, String type) {
+
+    /**
+     * Checks that need no balances; returns the problem, or null if the item is well-formed.
+     */
+    public String validate() {
+        if (amount <= 0) return "Amount must be positive";
+        if (type == null) return "Missing transaction type";
+        return switch (type) {
+            case "DEPOSIT" -> to == null ? "Deposit needs a target account" : null;
+            case "WITHDRAW" -> from == null ? "Withdrawal needs a source account" : null;
+            case "TRANSFER" -> {
+                if (from == null || to == null) yield "Transfer needs both accounts";
+                if (from.getAccountNumber().equals(to.getAccountNumber())) yield "Cannot transfer to the same account";
+                yield null;
+            }
+            default -> "Unknown transaction type: " + type;
+        };
+    }
+}
@@ -0,0 +1,19 @@
+package com.bankingSystem.Transaction;
+
+/**
+ * Outcome of one processBatch() item. transaction is null for items rejected by validation,
+ * since no ledger row was created for them.
+ */
+public record TransactionResult(TransactionRequest request, Transaction transaction, Outcome outcome, String message) {
+
+    public enum Outcome {
+        COMPLETED,        // applied and stored
+        PENDING_APPROVAL, // stored for the manager, no money moved
+        REJECTED,         // malformed item (nothing stored) or refused by the approval rules
+        FAILED            // refused by the account (e.g. insufficient funds), undone on its own
+    }
+
+    public boolean isCompleted() {
+        return outcome == Outcome.COMPLETED;
+    }
+}
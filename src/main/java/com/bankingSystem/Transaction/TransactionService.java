@@ -2,116 +2,541 @@
 package com.bankingSystem.Transaction;
 
 import com.bankingSystem.Account.Account;
-import com.bankingSystem.Database.AccountDAO;
-import com.bankingSystem.Database.TransactionDAO;
+import com.bankingSystem.Database.AccountCache;
+import com.bankingSystem.Database.AccountRepository;
+import com.bankingSystem.Database.LedgerJournal;
+import com.bankingSystem.Database.Storage;
+import com.bankingSystem.Database.TransactionRepository;
 import com.bankingSystem.Transaction.ChainOfResponsability.*;
+import com.bankingSystem.user.Role;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
 
 public class TransactionService {
-    private ApprovalHandler approvalChain;
-    private final TransactionDAO transactionDAO = new TransactionDAO();
-    private final AccountDAO accountDAO = new AccountDAO();
+    private final ApprovalHandler approvalChain = RuleBasedApprovalHandler.getInstance();
+    private final Role requesterRole; // role the approval rules see; null when not known
+    private final TransactionRepository transactionDAO = Storage.getInstance().transactions();
+    private final AccountRepository accountDAO = Storage.getInstance().accounts();
+    private final AccountLockManager lockManager = AccountLockManager.getInstance();
+    private final AccountCache accountCache = AccountCache.getInstance();
+    private final LedgerSequencer sequencer = LedgerSequencer.isEnabled() ? LedgerSequencer.getInstance() : null;
+    private final boolean journaling = Storage.getInstance().isPersistent(); // nothing to recover in memory mode
 
     public TransactionService() {
-        buildApprovalChain();
+        this(null);
     }
 
-    private void buildApprovalChain() {
-        ApprovalHandler small = new SmallTransactionHandler();
-        ApprovalHandler large = new LargeTransactionHandler();
-        ApprovalHandler manager = new ManagerApprovalHandler();
-
-        small.setNext(large);
-        large.setNext(manager);
-        approvalChain = small;
+    public TransactionService(Role requesterRole) {
+        this.requesterRole = requesterRole;
     }
 
     /**
      * Main method called from demo for deposits, withdrawals, transfers
      */
-    public void processTransaction(Account from, Account to, double amount, String type) {
+    public Transaction processTransaction(Account from, Account to, long amount, String type) {
+        return execute(null, from, to, amount, type);
+    }
+
+    /**
+     * Same as processTransaction, but safe to retry: the owner's first call with a given key runs
+     * and records the key with its ledger row in the same commit; any later call by that owner
+     * with that key (within the TTL of IdempotencyIndex) returns the original transaction and
+     * moves nothing. The same key for a different request is refused with an
+     * IllegalArgumentException. A call that failed leaves no key behind, so retrying it runs it again.
+     */
+    public Transaction processTransaction(String ownerId, String idempotencyKey, Account from, Account to,
+                                          long amount, String type) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return processTransaction(from, to, amount, type);
+        }
+        if (ownerId == null) throw new IllegalArgumentException("An idempotency key needs an owner");
+        String fingerprint = IdempotencyIndex.fingerprint(TransactionType.fromString(type),
+                from != null ? from.getAccountNumber() : null, to != null ? to.getAccountNumber() : null, amount);
+        IdempotencyIndex idempotency = IdempotencyIndex.getInstance();
+        IdempotencyIndex.Claim claim = idempotency.claim(ownerId, idempotencyKey, fingerprint);
+        if (!claim.owner()) {
+            Transaction original = IdempotencyIndex.await(claim);
+            System.out.println("Duplicate request ignored, key " + idempotencyKey + " already produced " + original.getTransactionId());
+            return original;
+        }
+        try {
+            Transaction tx = execute(claim, from, to, amount, type);
+            idempotency.complete(claim, tx);
+            return tx;
+        } catch (RuntimeException e) {
+            return idempotency.fail(claim, e);
+        }
+    }
+
+    private Transaction execute(IdempotencyIndex.Claim claim, Account from, Account to, long amount, String typeName) {
+        TransactionType type = TransactionType.fromString(typeName);
         Transaction tx = new Transaction(type, amount,
                 from != null ? from.getAccountNumber() : null,
                 to != null ? to.getAccountNumber() : null);
 
-        // Run approval chain
-        approvalChain.handle(tx);
+        // Run approval rules
+        approvalChain.handle(tx, from != null ? from : to, requesterRole);
 
         if (tx.isApproved()) {
-            // === EXECUTE THE MONEY MOVEMENT ===
-            switch (type) {
-                case "DEPOSIT" -> to.deposit(amount);
-                case "WITHDRAW" -> from.withdraw(amount);
-                case "TRANSFER" -> {
-                    from.withdraw(amount);
-                    to.deposit(amount);
-                }
-                default -> throw new IllegalArgumentException("Unknown transaction type: " + type);
-            }
-
-            tx.setStatus("COMPLETED");
+            // === DEBIT, CREDIT AND LEDGER INSERT AS ONE JDBC TRANSACTION ===
+            runAtomically(from, to, tx::getDescription, () -> {
+                applyMovement(type, from, to, amount);
+                tx.setStatus(TransactionStatus.COMPLETED);
+            }, () -> {
+                transactionDAO.saveTransaction(tx);
+                if (claim != null) saveIdempotencyKey(claim, tx);
+            });
 
-            // Add to in-memory history
+            // Add to in-memory history once the commit succeeded
             if (from != null) from.addTransaction(tx);
             if (to != null) to.addTransaction(tx);
 
-            // === PERSIST ACCOUNTS WITH NEW BALANCE ===
-            if (from != null) from.persist();
-            if (to != null) to.persist();
-
             System.out.println("Transaction COMPLETED and balances updated: " + tx.getDescription());
         } else {
-            System.out.println("Transaction requires manager approval: " + tx.getStatus());
+            System.out.println(tx.isRejected()
+                    ? "Transaction rejected by the approval rules: " + tx.getDescription()
+                    : "Transaction requires manager approval: " + tx.getStatus());
+            // Saved for audit and pending approval. A failed insert throws, so only a stored row is queued
+            Storage.getInstance().inTransaction(() -> {
+                transactionDAO.saveTransaction(tx);
+                if (claim != null) saveIdempotencyKey(claim, tx);
+                return null;
+            });
+            if (tx.isPendingManagerApproval()) PendingApprovalQueue.getInstance().add(tx);
         }
+        return tx;
+    }
 
-        // === ALWAYS SAVE THE TRANSACTION RECORD (for audit and pending approval) ===
-        transactionDAO.saveTransaction(tx);
+    /**
+     * Bulk variant of processTransaction for large postings such as the nightly file.
+     * Every item is validated and run through the approval chain before any lock is taken.
+     * The approved ones are then applied in one unit of work that holds the locks of all
+     * accounts involved: each account row is written once with its final values and all
+     * ledger rows (including the ones left for manager approval) go in one JDBC batch.
+     * An item the account refuses (e.g. insufficient funds) is undone on its own, stored as
+     * FAILED with the reason as note and comes back as FAILED while the rest still go through.
+     * Results are in request order.
+     * If the unit itself fails (database error) nothing is applied and the exception is thrown.
+     */
+    public List<TransactionResult> processBatch(List<TransactionRequest> requests) {
+        return processBatch(requests, null);
     }
 
     /**
-     * Called by Manager.approveTransaction() to execute pending large transactions
+     * Same as processBatch(requests), and alsoInCommit (if not null) runs inside the same unit
+     * of work after the ledger rows are written, so its writes commit or roll back with the
+     * batch. The StandingOrderEngine moves its orders to their next occurrence this way.
      */
-    public void executeApprovedTransaction(String transactionId) {
-        Transaction tx = transactionDAO.loadTransactionById(transactionId);
+    public List<TransactionResult> processBatch(List<TransactionRequest> requests, Runnable alsoInCommit) {
+        TransactionResult[] results = new TransactionResult[requests.size()];
+        Transaction[] transactions = new Transaction[requests.size()];
+        List<Integer> approved = new ArrayList<>();
+        List<Transaction> pending = new ArrayList<>();
 
-        if (tx == null || !"APPROVED_BY_MANAGER".equals(tx.getStatus())) {
-            System.out.println("Cannot execute: transaction not found or not approved.");
-            return;
+        // 1. Validation and approval, no locks held
+        for (int i = 0; i < requests.size(); i++) {
+            TransactionRequest request = requests.get(i);
+            String problem = request.validate();
+            if (problem != null) {
+                results[i] = new TransactionResult(request, null, TransactionResult.Outcome.REJECTED, problem);
+                continue;
+            }
+            Transaction tx = new Transaction(TransactionType.fromString(request.type()), request.amount(),
+                    request.from() != null ? request.from().getAccountNumber() : null,
+                    request.to() != null ? request.to().getAccountNumber() : null);
+            approvalChain.handle(tx, request.from() != null ? request.from() : request.to(), requesterRole);
+            transactions[i] = tx;
+            if (tx.isApproved()) {
+                approved.add(i);
+            } else {
+                pending.add(tx); // stored either way, for the manager or for audit
+                results[i] = new TransactionResult(request, tx, tx.isRejected()
+                        ? TransactionResult.Outcome.REJECTED : TransactionResult.Outcome.PENDING_APPROVAL, tx.getStatus().name());
+            }
         }
 
-        Account from = tx.getFromAccount() != null ? accountDAO.loadAccount(tx.getFromAccount()) : null;
-        Account to = tx.getToAccount() != null ? accountDAO.loadAccount(tx.getToAccount()) : null;
+        // 2. Apply everything approved as one commit
+        int completed = applyBatch(requests, transactions, approved, results, new ArrayList<>(pending), new ArrayList<>(),
+                false, alsoInCommit);
+        PendingApprovalQueue queue = PendingApprovalQueue.getInstance();
+        for (Transaction tx : pending) {
+            if (tx.isPendingManagerApproval()) queue.add(tx);
+        }
+        System.out.printf("Batch processed: %d items, %d completed, %d not approved%n",
+                requests.size(), completed, pending.size());
+        return List.of(results);
+    }
+
+    /**
+     * Manager approval of many pending transactions at once. The listed ones that are still
+     * pending are taken off the PendingApprovalQueue and executed together as one batch (see
+     * processBatch): accounts are loaded once each, and the rows' new statuses (COMPLETED, or
+     * FAILED with the reason as note) are written with one JDBC batch in the same commit. Ids that are not
+     * pending any more (e.g. another manager took them first) are skipped.
+     * The queue only sees this process, so before anything runs each row is moved from
+     * PENDING_MANAGER_APPROVAL to APPROVED_BY_MANAGER in its own commit, on the condition that
+     * it is still pending; a row another process claimed first is skipped as well.
+     * If the commit fails the rows are set back to pending, the transactions go back to the
+     * queue and the exception is thrown. A row left APPROVED_BY_MANAGER by a crash in between
+     * is not run again on its own; it shows up with that status in the transaction report.
+     */
+    public List<TransactionResult> approvePending(Collection<String> transactionIds) {
+        return executeApproved(PendingApprovalQueue.getInstance().take(transactionIds));
+    }
+
+    /**
+     * Approves and executes the first count transactions of the queue (largest, then oldest).
+     */
+    public List<TransactionResult> approveTopPending(int count) {
+        return executeApproved(PendingApprovalQueue.getInstance().takeTop(count));
+    }
+
+    private List<TransactionResult> executeApproved(List<Transaction> candidates) {
+        List<Transaction> taken;
+        try {
+            taken = claimRows(candidates);
+        } catch (RuntimeException e) {
+            requeue(candidates);
+            throw e;
+        }
+        List<TransactionRequest> requests = new ArrayList<>(taken.size());
+        TransactionResult[] results = new TransactionResult[taken.size()];
+        List<Integer> valid = new ArrayList<>();
+        List<Transaction> statusUpdates = new ArrayList<>();
+        Map<String, Account> loaded = new HashMap<>();
+        for (int i = 0; i < taken.size(); i++) {
+            Transaction tx = taken.get(i);
+            Account from = tx.getFromAccount() != null ? loaded.computeIfAbsent(tx.getFromAccount(), accountDAO::loadAccount) : null;
+            Account to = tx.getToAccount() != null ? loaded.computeIfAbsent(tx.getToAccount(), accountDAO::loadAccount) : null;
+            TransactionRequest request = new TransactionRequest(from, to, tx.getAmount(), tx.getType().name());
+            requests.add(request);
+            String problem = request.validate(); // e.g. an account deleted while the item waited
+            if (problem != null) {
+                tx.setStatus(TransactionStatus.FAILED, problem);
+                statusUpdates.add(tx);
+                results[i] = new TransactionResult(request, tx, TransactionResult.Outcome.FAILED, problem);
+            } else {
+                valid.add(i);
+            }
+        }
 
         try {
-            switch (tx.getType()) {
-                case "DEPOSIT" -> to.deposit(tx.getAmount());
-                case "WITHDRAW" -> from.withdraw(tx.getAmount());
-                case "TRANSFER" -> {
-                    if (from.getBalance() < tx.getAmount()) {
-                        throw new IllegalStateException("Insufficient funds");
-                    }
-                    from.withdraw(tx.getAmount());
-                    to.deposit(tx.getAmount());
+            int completed = applyBatch(requests, taken.toArray(new Transaction[0]), valid, results,
+                    new ArrayList<>(), statusUpdates, true, null);
+            System.out.printf("Manager approval executed: %d of %d transactions completed%n", completed, taken.size());
+        } catch (RuntimeException e) {
+            try {
+                Storage.getInstance().inTransaction(() -> transactionDAO.transitionStatuses(idsOf(taken),
+                        TransactionStatus.APPROVED_BY_MANAGER, ApprovalDecision.MANAGER_APPROVAL.status()));
+            } catch (RuntimeException releaseFailed) {
+                e.addSuppressed(releaseFailed);
+            }
+            requeue(taken);
+            throw e;
+        }
+        return List.of(results);
+    }
+
+    // Conditional on the stored status, so of two processes approving the same row only one gets it
+    private List<Transaction> claimRows(List<Transaction> candidates) {
+        if (candidates.isEmpty()) return candidates;
+        Set<String> claimed = new HashSet<>(Storage.getInstance().inTransaction(() -> transactionDAO.transitionStatuses(
+                idsOf(candidates), ApprovalDecision.MANAGER_APPROVAL.status(), TransactionStatus.APPROVED_BY_MANAGER)));
+        List<Transaction> taken = new ArrayList<>(claimed.size());
+        for (Transaction tx : candidates) {
+            if (claimed.contains(tx.getTransactionId())) {
+                tx.setStatus(TransactionStatus.APPROVED_BY_MANAGER);
+                taken.add(tx);
+            } else {
+                System.out.println("Skipped, no longer pending: " + tx.getTransactionId());
+            }
+        }
+        return taken;
+    }
+
+    private static void requeue(List<Transaction> transactions) {
+        PendingApprovalQueue queue = PendingApprovalQueue.getInstance();
+        for (Transaction tx : transactions) {
+            tx.setStatus(ApprovalDecision.MANAGER_APPROVAL.status());
+            queue.add(tx);
+        }
+    }
+
+    private static List<String> idsOf(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getTransactionId).toList();
+    }
+
+    /**
+     * Applies the given items, which passed validation and approval, as one unit of work and
+     * fills in their results; returns how many completed.
+     * For new transactions (stored = false) every item is inserted together with newRows,
+     * a FAILED one with the reason as note. For rows already in the ledger (stored = true) every item gets a status update,
+     * written together with statusUpdates. alsoInCommit, if not null, runs last in that commit.
+     */
+    private int applyBatch(List<TransactionRequest> requests, Transaction[] transactions, List<Integer> items,
+                           TransactionResult[] results, List<Transaction> newRows, List<Transaction> statusUpdates,
+                           boolean stored, Runnable alsoInCommit) {
+        Map<String, Account> accounts = new LinkedHashMap<>(); // one instance per account number
+        for (int i : items) {
+            TransactionRequest request = requests.get(i);
+            if (request.from() != null) accounts.putIfAbsent(request.from().getAccountNumber(), request.from());
+            if (request.to() != null) accounts.putIfAbsent(request.to().getAccountNumber(), request.to());
+        }
+
+        int[] completed = {0};
+        runBatchAtomically(accounts.values(), () -> {
+            for (int i : items) {
+                TransactionRequest request = requests.get(i);
+                Account from = request.from() != null ? accounts.get(request.from().getAccountNumber()) : null;
+                Account to = request.to() != null ? accounts.get(request.to().getAccountNumber()) : null;
+                long fromBefore = from != null ? from.getBalance() : 0;
+                long toBefore = to != null ? to.getBalance() : 0;
+                try {
+                    applyMovement(transactions[i].getType(), from, to, request.amount());
+                    transactions[i].setStatus(TransactionStatus.COMPLETED);
+                    results[i] = new TransactionResult(request, transactions[i], TransactionResult.Outcome.COMPLETED, "COMPLETED");
+                    completed[0]++;
+                } catch (IllegalStateException | IllegalArgumentException | ArithmeticException e) {
+                    // Refused by the account state: take back this item only
+                    if (from != null) from.setBalance(fromBefore);
+                    if (to != null) to.setBalance(toBefore);
+                    transactions[i].setStatus(TransactionStatus.FAILED, e.getMessage());
+                    results[i] = new TransactionResult(request, transactions[i], TransactionResult.Outcome.FAILED, e.getMessage());
                 }
+                if (stored) statusUpdates.add(transactions[i]);
+                else newRows.add(transactions[i]); // a FAILED item is kept too, with the reason as note
             }
+        }, () -> {
+            if (!newRows.isEmpty()) transactionDAO.saveTransactions(newRows);
+            if (!statusUpdates.isEmpty()) transactionDAO.updateTransactionStatuses(statusUpdates);
+            if (alsoInCommit != null) alsoInCommit.run();
+        });
 
-            tx.setStatus("COMPLETED");
+        for (int i : items) {
+            if (!results[i].isCompleted()) continue;
+            TransactionRequest request = requests.get(i);
+            if (request.from() != null) accounts.get(request.from().getAccountNumber()).addTransaction(transactions[i]);
+            if (request.to() != null) accounts.get(request.to().getAccountNumber()).addTransaction(transactions[i]);
+        }
+        return completed[0];
+    }
+
+    private void saveIdempotencyKey(IdempotencyIndex.Claim claim, Transaction tx) {
+        transactionDAO.saveIdempotencyKey(claim.ownerId(), claim.key(), claim.fingerprint(), tx.getTransactionId());
+    }
 
-            if (from != null) {
-                from.addTransaction(tx);
-                from.persist();
+    private void applyMovement(TransactionType type, Account from, Account to, long amount) {
+        switch (type) {
+            case DEPOSIT -> credit(to, amount);
+            case WITHDRAW -> debit(from, amount);
+            case TRANSFER -> {
+                debit(from, amount);
+                credit(to, amount);
             }
-            if (to != null) {
-                to.addTransaction(tx);
-                to.persist();
+            default -> throw new IllegalArgumentException("Unknown transaction type: " + type);
+        }
+    }
+
+    // The sequencer thread owns every balance, so it goes to the state directly without the account lock
+    private void credit(Account account, long amount) {
+        if (sequencer != null && sequencer.ownsBalances()) account.state.deposit(account, amount);
+        else account.deposit(amount);
+    }
+
+    private void debit(Account account, long amount) {
+        if (sequencer != null && sequencer.ownsBalances()) account.state.withdraw(account, amount);
+        else account.withdraw(amount);
+    }
+
+    /**
+     * Runs the money movement (apply, in memory) and its other writes (record) in a single
+     * commit. If anything fails the database rolls back and the in-memory balances are put
+     * back, so money is never half-moved.
+     * Both accounts are locked (in a fixed order) for the whole operation, so concurrent
+     * transfers touching the same account are serialized while unrelated ones run in parallel.
+     * The resulting balances are appended to the ledger journal just before the commit; the
+     * journal group is confirmed with a commit record once the commit succeeded, or cancelled
+     * with an abort record if it failed. The journal force this call waits for runs after the
+     * locks are released, together with the other threads committing at the same time.
+     * With -Dbank.tx.mode=sequencer apply runs on the LedgerSequencer thread instead, without
+     * locks; the sequencer journals the balances and stores them with record in one commit,
+     * and this call returns once that commit is done (see LedgerSequencer).
+     */
+    private void runAtomically(Account from, Account to, Supplier<String> notice, Runnable apply, Runnable record) {
+        List<Account> accounts = from == null ? listOf(to) : to == null || to == from ? List.of(from) : List.of(from, to);
+        if (sequencer != null) {
+            // Sequencer mode: hand the unit to the single writer and wait for it (synchronous wrapper)
+            await(sequencer.publish(() -> sequencedUnit(accounts, apply, record), from, to, notice));
+            return;
+        }
+        AccountLockManager.Held locks = lockManager.lock(
+                from != null ? from.getAccountNumber() : null,
+                to != null ? to.getAccountNumber() : null);
+        long commitRecord;
+        try {
+            commitRecord = commitUnit(accounts, apply, record);
+        } finally {
+            locks.close();
+        }
+        if (commitRecord >= 0) LedgerJournal.getInstance().awaitDurable(commitRecord);
+    }
+
+    /**
+     * Same as runAtomically for a batch: the locks of all accounts are taken together in
+     * stripe order. No per-item notifications are sent.
+     */
+    private void runBatchAtomically(Collection<Account> batchAccounts, Runnable apply, Runnable record) {
+        List<Account> accounts = List.copyOf(batchAccounts);
+        if (sequencer != null) {
+            await(sequencer.publish(() -> sequencedUnit(accounts, apply, record), null, null, null));
+            return;
+        }
+        AccountLockManager.Held locks = lockManager.lockAll(
+                accounts.stream().map(Account::getAccountNumber).toList());
+        long commitRecord;
+        try {
+            commitRecord = commitUnit(accounts, apply, record);
+        } finally {
+            locks.close();
+        }
+        if (commitRecord >= 0) LedgerJournal.getInstance().awaitDurable(commitRecord);
+    }
+
+    private static void await(CompletableFuture<Void> done) {
+        try {
+            done.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    private static List<Account> listOf(Account account) {
+        return account != null ? List.of(account) : List.of();
+    }
+
+    /**
+     * One commit of the unit plus its journal group; returns the sequence of the group's
+     * COMMIT record, for LedgerJournal.awaitDurable(), or -1 if no balance changed. Runs under
+     * the account locks (or on the sequencer thread without a journal).
+     */
+    private long commitUnit(List<Account> accounts, Runnable apply, Runnable record) {
+        long[] before = balancesBefore(accounts);
+        long[] journalGroup = {-1};
+        try {
+            Storage.getInstance().inTransaction(() -> {
+                try (UnitOfWork unit = UnitOfWork.begin()) {
+                    apply.run();
+                    unit.commit(); // one write per account, however many movements touched it
+                }
+                record.run();
+                List<LedgerJournal.Mutation> mutations = journalMutations(accounts, before);
+                if (!mutations.isEmpty()) journalGroup[0] = LedgerJournal.getInstance().appendGroup(mutations);
+                return null;
+            });
+        } catch (RuntimeException e) {
+            if (journalGroup[0] >= 0) LedgerJournal.getInstance().appendAbort(journalGroup[0]);
+            restoreBalances(accounts, before);
+            throw e;
+        }
+        // Committed: from here on the group must never be aborted
+        return journalGroup[0] >= 0 ? LedgerJournal.getInstance().groupCommitted(journalGroup[0]) : -1;
+    }
+
+    /**
+     * The unit on the sequencer thread, which owns all balances. With a journal the movement
+     * is only applied in memory and journaled (the sequencer's journal consumer forces it);
+     * the balances and record are left to its persistence consumer, which stores them in one
+     * commit and then confirms the group.
+     */
+    private LedgerSequencer.Applied sequencedUnit(List<Account> accounts, Runnable apply, Runnable record) {
+        if (!journaling) {
+            commitUnit(accounts, apply, record); // nothing is journaled without a journal
+            return new LedgerSequencer.Applied(-1, Map.of(), null);
+        }
+        long[] before = balancesBefore(accounts);
+        List<LedgerJournal.Mutation> mutations;
+        long journalGroup;
+        try {
+            UnitOfWork unit = UnitOfWork.begin();
+            try {
+                apply.run();
+            } finally {
+                unit.close();
             }
+            mutations = journalMutations(accounts, before);
+            journalGroup = mutations.isEmpty() ? -1 : LedgerJournal.getInstance().appendGroup(mutations);
+        } catch (RuntimeException e) {
+            restoreBalances(accounts, before);
+            throw e;
+        }
+        Map<String, Long> balances = new HashMap<>();
+        for (LedgerJournal.Mutation m : mutations) {
+            balances.put(m.accountNumber(), m.balanceAfter());
+        }
+        for (Account account : accounts) {
+            // The persistence consumer stores the balance; a persist() now could write one not journaled yet.
+            // If storing fails, the sequencer reloads the canonical instance from the database.
+            Set<Account.DirtyField> others = account.takeDirtyFields();
+            others.remove(Account.DirtyField.BALANCE);
+            others.forEach(account::markDirty);
+            accountCache.saved(account, Set.of(Account.DirtyField.BALANCE)); // a copy's balance reaches the canonical instance
+        }
+        return new LedgerSequencer.Applied(journalGroup, balances, record);
+    }
+
+    private long[] balancesBefore(List<Account> accounts) {
+        // The caller's Account objects may have been loaded before another thread changed them
+        long[] before = new long[accounts.size()];
+        for (int i = 0; i < before.length; i++) {
+            refreshBalance(accounts.get(i));
+            before[i] = accounts.get(i).getBalance();
+        }
+        return before;
+    }
+
+    private static void restoreBalances(List<Account> accounts, long[] before) {
+        for (int i = 0; i < before.length; i++) {
+            accounts.get(i).setBalance(before[i]);
+        }
+    }
 
-            // Update status in DB (don't re-insert whole object)
-            transactionDAO.updateTransactionStatus(transactionId, "COMPLETED");
+    // One mutation per account whose balance changed, with its net delta
+    private List<LedgerJournal.Mutation> journalMutations(List<Account> accounts, long[] before) {
+        if (!journaling) return List.of();
+        List<LedgerJournal.Mutation> mutations = new ArrayList<>(accounts.size());
+        for (int i = 0; i < before.length; i++) {
+            Account account = accounts.get(i);
+            if (account.getBalance() != before[i]) {
+                mutations.add(new LedgerJournal.Mutation(account.getAccountNumber(), account.getBalance() - before[i], account.getBalance()));
+            }
+        }
+        return mutations;
+    }
 
-            System.out.println("Large transaction EXECUTED successfully: " + transactionId);
-        } catch (Exception e) {
-            transactionDAO.updateTransactionStatus(transactionId, "FAILED: " + e.getMessage());
-            System.out.println("Execution failed: " + e.getMessage());
+    private void refreshBalance(Account account) {
+        if (account == null) return;
+        // In sequencer mode the stored row may not have caught up with the sequencer yet
+        Long queued = sequencer != null ? sequencer.unpersistedBalance(account.getAccountNumber()) : null;
+        if (queued != null) {
+            account.loadBalance(queued);
+            return;
+        }
+        // The cached canonical instance is always current (write-through), no need to re-read it
+        if (accountCache.isCanonical(account)) return;
+        Long stored = accountDAO.loadBalance(account.getAccountNumber());
+        if (stored != null) {
+            account.loadBalance(stored); // matches the stored row, nothing to write back
         }
     }
 }
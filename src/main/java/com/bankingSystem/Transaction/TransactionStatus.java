@@ -0,0 +1,49 @@
+package com.bankingSystem.Transaction;
+
+/**
+ * Lifecycle of a ledger entry. Like TransactionType, the code is the stored TINYINT value.
+ * A reason for FAILED or REJECTED goes in the transaction's note, not in the status.
+ */
+public enum TransactionStatus {
+    PENDING(0, false),
+    APPROVED_AUTO(1, true),
+    APPROVED_TELLER(2, true),
+    PENDING_MANAGER_APPROVAL(3, false),
+    APPROVED_BY_MANAGER(4, true),
+    COMPLETED(5, true),
+    REJECTED(6, false),
+    REJECTED_BY_MANAGER(7, false),
+    FAILED(8, false);
+
+    private static final TransactionStatus[] BY_CODE = new TransactionStatus[9];
+
+    static {
+        for (TransactionStatus status : values()) BY_CODE[status.code] = status;
+    }
+
+    private final int code;
+    private final boolean approved;
+
+    TransactionStatus(int code, boolean approved) {
+        this.code = code;
+        this.approved = approved;
+    }
+
+    public int code() {
+        return code;
+    }
+
+    /**
+     * True for the statuses that allow (or record) the money movement.
+     */
+    public boolean isApproved() {
+        return approved;
+    }
+
+    public static TransactionStatus fromCode(int code) {
+        if (code < 0 || code >= BY_CODE.length || BY_CODE[code] == null) {
+            throw new IllegalArgumentException("Unknown transaction status code: " + code);
+        }
+        return BY_CODE[code];
+    }
+}
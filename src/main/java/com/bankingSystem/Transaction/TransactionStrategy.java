@@ -4,5 +4,5 @@ package com.bankingSystem.Transaction;
 import com.bankingSystem.Account.Account;
 
 public interface TransactionStrategy {
-    void execute(Account from, Account to, double amount, Transaction transaction);
+    void execute(Account from, Account to, long amount, Transaction transaction);
 }
\ No newline at end of file
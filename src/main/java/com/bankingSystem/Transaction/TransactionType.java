@@ -0,0 +1,57 @@
+package com.bankingSystem.Transaction;
+
+/**
+ * Kind of ledger entry. The code is what the Transactions table stores (TINYINT), so existing
+ * codes must never change; new types get new codes.
+ */
+public enum TransactionType {
+    ADJUSTMENT(0, "Adjustment"), // anything older builds stored that is not one of the types below
+    DEPOSIT(1, "Deposit"),
+    WITHDRAW(2, "Withdrawal"),
+    TRANSFER(3, "Transfer"),
+    TRANSFER_IN(4, "Transfer in"),
+    TRANSFER_OUT(5, "Transfer out"),
+    LOAN_PAYMENT(6, "Loan payment"),
+    INTEREST(7, "Interest");
+
+    private static final TransactionType[] BY_CODE = new TransactionType[8];
+
+    static {
+        for (TransactionType type : values()) BY_CODE[type.code] = type;
+    }
+
+    private final int code;
+    private final String label;
+
+    TransactionType(int code, String label) {
+        this.code = code;
+        this.label = label;
+    }
+
+    public int code() {
+        return code;
+    }
+
+    public String label() {
+        return label;
+    }
+
+    public static TransactionType fromCode(int code) {
+        if (code < 0 || code >= BY_CODE.length || BY_CODE[code] == null) {
+            throw new IllegalArgumentException("Unknown transaction type code: " + code);
+        }
+        return BY_CODE[code];
+    }
+
+    /**
+     * The type named by a menu or API argument such as "DEPOSIT".
+     */
+    public static TransactionType fromString(String name) {
+        if (name == null) throw new IllegalArgumentException("Missing transaction type");
+        try {
+            return valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown transaction type: " + name);
+        }
+    }
+}
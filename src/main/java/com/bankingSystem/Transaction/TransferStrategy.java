@@ -2,29 +2,33 @@
 package com.bankingSystem.Transaction;
 
 import com.bankingSystem.Account.Account;
+import com.bankingSystem.Util.Money;
 
 public class TransferStrategy implements TransactionStrategy {
     @Override
-    public void execute(Account from, Account to, double amount, Transaction transaction) {
+    public void execute(Account from, Account to, long amount, Transaction transaction) {
         if (from.getBalance() < amount) {
-            transaction.setStatus("REJECTED - Insufficient funds");
+            transaction.setStatus(TransactionStatus.REJECTED, "Insufficient funds");
             throw new IllegalStateException("Insufficient funds for transfer");
         }
 
-        from.withdraw(amount);
-        to.deposit(amount);
+        try (UnitOfWork unit = UnitOfWork.begin()) {
+            from.withdraw(amount);
+            to.deposit(amount);
+            unit.commit();
+        }
 
         // سجلة معاملات منفصلة للتحويل
-        Transaction outTx = new Transaction("TRANSFER_OUT", amount, from.getAccountNumber(), to.getAccountNumber());
-        Transaction inTx = new Transaction("TRANSFER_IN", amount, from.getAccountNumber(), to.getAccountNumber());
+        Transaction outTx = new Transaction(TransactionType.TRANSFER_OUT, amount, from.getAccountNumber(), to.getAccountNumber());
+        Transaction inTx = new Transaction(TransactionType.TRANSFER_IN, amount, from.getAccountNumber(), to.getAccountNumber());
 
-        outTx.setStatus("COMPLETED");
-        inTx.setStatus("COMPLETED");
+        outTx.setStatus(TransactionStatus.COMPLETED);
+        inTx.setStatus(TransactionStatus.COMPLETED);
 
         from.addTransaction(outTx);
         to.addTransaction(inTx);
 
-        transaction.setStatus("COMPLETED");
-        System.out.println("Transfer successful: " + amount + " from " + from.getAccountNumber() + " → " + to.getAccountNumber());
+        transaction.setStatus(TransactionStatus.COMPLETED);
+        System.out.println("Transfer successful: " + Money.format(amount) + " from " + from.getAccountNumber() + " → " + to.getAccountNumber());
     }
 }
\ No newline at end of file
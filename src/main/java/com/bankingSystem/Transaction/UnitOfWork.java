@@ -0,0 +1,75 @@
+package com.bankingSystem.Transaction;
+
+import com.bankingSystem.Account.Account;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Collects the effects of one money movement (or one batch of them) on the current thread.
+ * The account states only change the balance and report it here with recordMovement(); the
+ * service then calls commit() once, which writes each changed account a single time, and adds
+ * its own Transaction as the one history entry. Without an active unit (a direct
+ * account.deposit() call) the movement is written and recorded on the spot instead.
+ */
+public final class UnitOfWork implements AutoCloseable {
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+
+    private final Set<Account> changed = new LinkedHashSet<>(); // Account keeps identity equality
+    private int movements;
+
+    private UnitOfWork() {
+    }
+
+    /**
+     * Starts a unit on this thread; use it in try-with-resources so it always ends.
+     */
+    public static UnitOfWork begin() {
+        if (CURRENT.get() != null) {
+            throw new IllegalStateException("A unit of work is already active on this thread");
+        }
+        UnitOfWork unit = new UnitOfWork();
+        CURRENT.set(unit);
+        return unit;
+    }
+
+    /**
+     * Called by the account states after they changed the balance by delta.
+     * The note (e.g. "Overdraft used", may be null) only matters when no unit is active and a
+     * history entry has to be made here.
+     */
+    public static void recordMovement(Account account, long delta, String note) {
+        UnitOfWork unit = CURRENT.get();
+        if (unit != null) {
+            unit.movements++;
+            unit.changed.add(account);
+            return;
+        }
+        Transaction entry = new Transaction(delta >= 0 ? TransactionType.DEPOSIT : TransactionType.WITHDRAW, Math.abs(delta));
+        entry.setNote(note);
+        account.addTransaction(entry);
+        account.persist();
+    }
+
+    /**
+     * Writes every changed account once, with its final values.
+     */
+    public void commit() {
+        for (Account account : changed) {
+            account.persist();
+        }
+    }
+
+    public Set<Account> changedAccounts() {
+        return changed;
+    }
+
+    public int movementCount() {
+        return movements;
+    }
+
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) CURRENT.remove();
+    }
+}
@@ -4,13 +4,17 @@ package com.bankingSystem.Transaction;
 
 
 import com.bankingSystem.Account.Account;
+import com.bankingSystem.Util.Money;
 
 public class WithdrawStrategy implements TransactionStrategy {
     @Override
-    public void execute(Account from, Account to, double amount, Transaction transaction) {
-        from.withdraw(amount);
-        transaction.setStatus("COMPLETED");
+    public void execute(Account from, Account to, long amount, Transaction transaction) {
+        try (UnitOfWork unit = UnitOfWork.begin()) {
+            from.withdraw(amount);
+            unit.commit();
+        }
+        transaction.setStatus(TransactionStatus.COMPLETED);
         from.addTransaction(transaction);
-        System.out.println("Withdrawal completed: -" + amount + " from " + from.getAccountNumber());
+        System.out.println("Withdrawal completed: -" + Money.format(amount) + " from " + from.getAccountNumber());
     }
 }
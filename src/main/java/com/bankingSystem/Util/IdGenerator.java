@@ -0,0 +1,10 @@
+package com.bankingSystem.Util;
+
+/**
+ * Source of primary keys for transactions, accounts and users. Ids are strings so they fit
+ * the existing VARCHAR columns; see Ids for how the implementation is chosen.
+ */
+public interface IdGenerator {
+
+    String nextId();
+}
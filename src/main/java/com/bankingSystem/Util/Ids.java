@@ -0,0 +1,32 @@
+package com.bankingSystem.Util;
+
+import java.util.UUID;
+
+/**
+ * Holds the id generator the application runs with (Singleton).
+ * -Dbank.id.generator=time (default) gives time-ordered UUIDv7 ids, so new rows are appended
+ * at the right edge of the primary key index; -Dbank.id.generator=random keeps the old
+ * random UUIDs.
+ */
+public final class Ids {
+    private static IdGenerator generator;
+
+    private Ids() {
+    }
+
+    public static synchronized IdGenerator getInstance() {
+        if (generator == null) {
+            String kind = System.getProperty("bank.id.generator", "time");
+            generator = switch (kind.toLowerCase()) {
+                case "time" -> new TimeOrderedIdGenerator();
+                case "random" -> () -> UUID.randomUUID().toString();
+                default -> throw new IllegalArgumentException("Unknown id generator: " + kind);
+            };
+        }
+        return generator;
+    }
+
+    public static String next() {
+        return getInstance().nextId();
+    }
+}
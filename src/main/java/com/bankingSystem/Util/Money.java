@@ -0,0 +1,73 @@
+package com.bankingSystem.Util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money is kept as a primitive long count of minor units (cents) everywhere: in the domain
+ * objects, the interest strategies and the BIGINT database columns. Arithmetic is exact and
+ * allocation-free; BigDecimal is only used at the edge, when parsing user input.
+ */
+public final class Money {
+    public static final int SCALE = 2;
+    public static final long MINOR_PER_UNIT = 100;
+    private static final long BASIS_POINTS = 10_000;
+
+    private Money() {
+    }
+
+    /**
+     * Whole currency units to minor units, e.g. ofMajor(5_000) is 5,000.00.
+     */
+    public static long ofMajor(long units) {
+        return Math.multiplyExact(units, MINOR_PER_UNIT);
+    }
+
+    /**
+     * Parses user input such as "250" or "99.95". Rejects more than two decimal places
+     * instead of silently rounding.
+     */
+    public static long parse(String text) {
+        try {
+            return new BigDecimal(text.trim())
+                    .setScale(SCALE, RoundingMode.UNNECESSARY)
+                    .unscaledValue()
+                    .longValueExact();
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount: " + text);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount must have at most " + SCALE + " decimal places: " + text);
+        }
+    }
+
+    public static String format(long minor) {
+        long abs = Math.abs(minor);
+        long cents = abs % MINOR_PER_UNIT;
+        return (minor < 0 ? "-" : "") + abs / MINOR_PER_UNIT + (cents < 10 ? ".0" : ".") + cents;
+    }
+
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /**
+     * amount * basisPoints / 10,000, rounded half away from zero (400 bps = 4%).
+     */
+    public static long applyRate(long amount, long basisPoints) {
+        return applyRate(amount, basisPoints, 1);
+    }
+
+    /**
+     * Rate spread over a number of periods, e.g. a yearly rate applied monthly uses periods = 12.
+     */
+    public static long applyRate(long amount, long basisPoints, long periods) {
+        long numerator = Math.multiplyExact(amount, basisPoints);
+        long denominator = BASIS_POINTS * periods;
+        long half = denominator / 2;
+        return numerator >= 0 ? (numerator + half) / denominator : (numerator - half) / denominator;
+    }
+}
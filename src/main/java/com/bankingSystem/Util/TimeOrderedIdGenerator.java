@@ -0,0 +1,49 @@
+package com.bankingSystem.Util;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UUIDv7 ids (RFC 9562): 48 bits of Unix milliseconds, then a 12-bit sequence, then 62 random
+ * bits. The canonical lower-case text sorts in the same order as the ids were issued, across
+ * all threads of the process, so inserts always land at the end of the index.
+ *
+ * The millisecond and sequence are claimed together with one CAS on an AtomicLong; no lock is
+ * taken. More than 4096 ids in one millisecond borrow the next millisecond instead of waiting,
+ * and a clock that steps back is ignored until it catches up, so order is never broken.
+ * The random bits come from ThreadLocalRandom: uniqueness comes from the time and sequence
+ * here, the random part only separates ids issued by different processes.
+ */
+public final class TimeOrderedIdGenerator implements IdGenerator {
+    private static final int SEQUENCE_BITS = 12;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long VERSION_7 = 0x7000L;
+    private static final long VARIANT_RFC = 0x8000_0000_0000_0000L;
+    private static final long RANDOM_MASK = 0x3FFF_FFFF_FFFF_FFFFL;
+
+    private final AtomicLong last = new AtomicLong(); // (millis << 12) | sequence of the last id
+
+    @Override
+    public String nextId() {
+        long stamp = nextStamp();
+        long msb = (stamp >>> SEQUENCE_BITS) << 16 | VERSION_7 | (stamp & SEQUENCE_MASK);
+        long lsb = VARIANT_RFC | (ThreadLocalRandom.current().nextLong() & RANDOM_MASK);
+        return new UUID(msb, lsb).toString();
+    }
+
+    /**
+     * Unix milliseconds encoded in an id made by this class.
+     */
+    public static long timestampOf(String id) {
+        return UUID.fromString(id).getMostSignificantBits() >>> 16;
+    }
+
+    private long nextStamp() {
+        while (true) {
+            long previous = last.get();
+            long next = Math.max(System.currentTimeMillis() << SEQUENCE_BITS, previous + 1);
+            if (last.compareAndSet(previous, next)) return next;
+        }
+    }
+}
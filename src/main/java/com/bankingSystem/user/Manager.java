@@ -1,9 +1,11 @@
 // src/main/java/com/bankingSystem/Roles/Manager.java
 package com.bankingSystem.user;
 
-import com.bankingSystem.Database.TransactionDAO;
+import com.bankingSystem.Transaction.TransactionResult;
 import com.bankingSystem.Transaction.TransactionService;
 
+import java.util.List;
+
 public class Manager extends User {
     public Manager(String username, String password) {
         super(username, password, Role.MANAGER);
@@ -15,12 +17,13 @@ public class Manager extends User {
 
     // Managers can approve large transactions (example method)
     public void approveTransaction(String transactionId) {
-        TransactionDAO txDAO = new TransactionDAO();
-        txDAO.updateTransactionStatus(transactionId, "APPROVED_BY_MANAGER");
-
-        // Automatically trigger execution
-        new TransactionService().executeApprovedTransaction(transactionId);
+        approveTransactions(List.of(transactionId));
+    }
 
-        System.out.println("Manager " + username + " approved and executed transaction " + transactionId);
+    // Approved transactions are executed straight away, all of them in one batch
+    public List<TransactionResult> approveTransactions(List<String> transactionIds) {
+        List<TransactionResult> results = new TransactionService(Role.MANAGER).approvePending(transactionIds);
+        System.out.println("Manager " + username + " approved " + results.size() + " of " + transactionIds.size() + " transactions");
+        return results;
     }
 }
\ No newline at end of file
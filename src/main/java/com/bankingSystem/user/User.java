@@ -1,9 +1,8 @@
 // src/main/java/com/bankingSystem/Roles/User.java
 package com.bankingSystem.user;
 
-import com.bankingSystem.Database.UserDAO;
-
-import java.util.UUID;
+import com.bankingSystem.Database.Storage;
+import com.bankingSystem.Util.Ids;
 
 public abstract class User {
     protected String userId;
@@ -12,7 +11,7 @@ public abstract class User {
     protected Role role;
 
     public User(String username, String password, Role role) {
-        this.userId = UUID.randomUUID().toString();
+        this.userId = Ids.next();
         this.username = username;
         this.passwordHash = hashPassword(password); // Simple placeholder
         this.role = role;
@@ -41,7 +40,7 @@ public abstract class User {
     public Role getRole() { return role; }
 
     public void persist() {
-        new UserDAO().saveUser(this);
+        Storage.getInstance().users().saveUser(this);
     }
 
     @Override
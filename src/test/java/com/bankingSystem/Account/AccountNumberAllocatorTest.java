@@ -0,0 +1,88 @@
+package com.bankingSystem.Account;
+
+import com.bankingSystem.Database.Storage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccountNumberAllocatorTest {
+    static {
+        System.setProperty("bank.storage", "memory");
+    }
+
+    @Test
+    void formatsWithCheckDigit() {
+        String number = new AccountNumberAllocator(10).next("FMT");
+        assertEquals("FMT-0000000018", number);
+        assertTrue(AccountNumberAllocator.isValid(number));
+        assertFalse(AccountNumberAllocator.isValid("FMT-0000000019"));
+        assertFalse(AccountNumberAllocator.isValid("FMT-0000000108")); // two digits swapped
+    }
+
+    @Test
+    void refillsBlocksWithoutHandingOutANumberTwice() throws Exception {
+        AccountNumberAllocator allocator = new AccountNumberAllocator(7); // many refills, raced by all threads
+        int threads = 8;
+        int perThread = 500;
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                done.add(pool.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        assertTrue(numbers.add(allocator.next("REF")));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : done) f.get();
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(threads * perThread, numbers.size());
+        assertTrue(numbers.stream().allMatch(AccountNumberAllocator::isValid));
+    }
+
+    @Test
+    void leftoverNumbersOfABlockAreNeverReused() {
+        assertEquals(AccountNumberAllocator.format("SKP", 1), new AccountNumberAllocator(3).next("SKP"));
+        // A new allocator (e.g. after a restart) reserves a fresh block; 2 and 3 are skipped
+        assertEquals(AccountNumberAllocator.format("SKP", 4), new AccountNumberAllocator(3).next("SKP"));
+    }
+
+    @Test
+    void exhaustedPrefixIsRefused() {
+        Storage.getInstance().accounts().reserveAccountNumbers("OVF", 999_999_990); // sequence now at 999_999_991
+        AccountNumberAllocator allocator = new AccountNumberAllocator(5);
+        for (int i = 0; i < 8; i++) allocator.next("OVF");
+        assertEquals(AccountNumberAllocator.format("OVF", 999_999_999), allocator.next("OVF"));
+
+        assertThrows(IllegalStateException.class, () -> allocator.next("OVF"));
+        assertThrows(IllegalStateException.class, () -> allocator.next("OVF")); // stays refused
+    }
+
+    @Test
+    void rejectsInvalidPrefix() {
+        AccountNumberAllocator allocator = new AccountNumberAllocator(10);
+        assertThrows(IllegalArgumentException.class, () -> allocator.next("sav"));
+        assertThrows(IllegalArgumentException.class, () -> allocator.next("S4V"));
+        assertThrows(IllegalArgumentException.class, () -> new AccountNumberAllocator(0));
+    }
+}
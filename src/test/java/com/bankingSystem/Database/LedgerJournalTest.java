@@ -0,0 +1,113 @@
+package com.bankingSystem.Database;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LedgerJournalTest {
+    private static final long SEGMENT_BYTES = 1024 * LedgerJournal.RECORD_SIZE;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replayKeepsCommittedSkipsAbortedAndReportsUnconfirmed() {
+        try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES, true)) {
+            long first = journal.appendGroup(List.of(
+                    new LedgerJournal.Mutation("A", -100, 900),
+                    new LedgerJournal.Mutation("B", 100, 100)));
+            journal.awaitDurable(journal.groupCommitted(first));
+            long aborted = journal.appendGroup(List.of(new LedgerJournal.Mutation("A", -900, 0)));
+            journal.appendAbort(aborted);
+            journal.appendGroup(List.of(new LedgerJournal.Mutation("B", 50, 150))); // no COMMIT yet
+            journal.force();
+        }
+
+        try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES, true)) {
+            LedgerJournal.ReplayResult result = journal.replay();
+            assertEquals(Map.of("A", 900L, "B", 100L), result.balances());
+            assertEquals(Map.of("B", Set.of(150L)), result.unconfirmedBalances());
+            assertEquals(1, result.committedGroups());
+            assertEquals(1, result.abortedGroups());
+            assertEquals(1, result.unconfirmedGroups());
+            assertEquals(0, result.incompleteGroups());
+            assertEquals(6, result.lastSequence());
+            assertEquals(6, journal.lastSequence()); // appending goes on after the last record
+        }
+    }
+
+    @Test
+    void replayStopsAtACorruptRecordAndAppendingOverwritesIt() throws IOException {
+        try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES, true)) {
+            journal.groupCommitted(journal.appendGroup(List.of(new LedgerJournal.Mutation("A", 10, 10))));
+            journal.groupCommitted(journal.appendGroup(List.of(new LedgerJournal.Mutation("A", 20, 30))));
+        }
+        // Flip a byte of the balance in record 3, the second group's mutation: its CRC no longer matches
+        try (RandomAccessFile file = new RandomAccessFile(segments().get(0).toFile(), "rw")) {
+            long offset = 2L * LedgerJournal.RECORD_SIZE + 47;
+            file.seek(offset);
+            int b = file.read();
+            file.seek(offset);
+            file.write(b ^ 0xFF);
+        }
+
+        try (LedgerJournal journal = new LedgerJournal(directory, SEGMENT_BYTES, true)) {
+            LedgerJournal.ReplayResult result = journal.replay();
+            assertEquals(Map.of("A", 10L), result.balances());
+            assertEquals(2, result.lastSequence()); // the valid COMMIT after the bad record is not read either
+            assertEquals(2, journal.lastSequence());
+
+            long group = journal.appendGroup(List.of(new LedgerJournal.Mutation("A", 5, 15)));
+            assertEquals(3, group);
+            journal.groupCommitted(group);
+            assertEquals(Map.of("A", 15L), journal.replay().balances());
+        }
+    }
+
+    @Test
+    void groupsSpanSegmentsAndOldSegmentsCanBeDeleted() throws IOException {
+        long settled;
+        try (LedgerJournal journal = new LedgerJournal(directory, 4 * LedgerJournal.RECORD_SIZE, true)) {
+            for (int i = 1; i <= 10; i++) {
+                // 3 records per group, so groups straddle the 4-record segments
+                journal.groupCommitted(journal.appendGroup(List.of(
+                        new LedgerJournal.Mutation("A", -i, 1000 - i * (i + 1) / 2),
+                        new LedgerJournal.Mutation("B", i, i * (i + 1) / 2))));
+            }
+            settled = journal.settledSequence();
+            assertEquals(30, settled);
+        }
+        assertEquals(8, segments().size());
+
+        try (LedgerJournal journal = new LedgerJournal(directory, 4 * LedgerJournal.RECORD_SIZE, true)) {
+            LedgerJournal.ReplayResult result = journal.replay();
+            assertEquals(Map.of("A", 945L, "B", 55L), result.balances());
+            assertEquals(10, result.committedGroups());
+            assertEquals(30, result.lastSequence());
+
+            // Only groups after 15 (the sixth group starts at 16) are replayed from a checkpoint there
+            assertEquals(5, journal.replayAfter(15).committedGroups());
+
+            assertEquals(7, journal.deleteSegmentsUpTo(settled)); // the tail segment stays
+            assertEquals(1, segments().size());
+            assertEquals(31, journal.appendGroup(List.of(new LedgerJournal.Mutation("A", 1, 946))));
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.getFileName().toString().startsWith("ledger-")).sorted().toList();
+        }
+    }
+}
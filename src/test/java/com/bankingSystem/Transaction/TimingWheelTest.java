@@ -0,0 +1,90 @@
+package com.bankingSystem.Transaction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+    private static final long TICK = 10;
+
+    @Test
+    void entryFiresAtTheEndOfItsTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 4, 0);
+        assertTrue(wheel.add(25, "a"));
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(29, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advance(30, fired::add);
+        assertEquals(List.of("a"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void entriesFarAheadCascadeDownAndFireOnTime() {
+        // Levels span 40, 160, 640 and 2560 ms, so most entries start on a higher level
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, 4, 0);
+        Random random = new Random(42);
+        List<Long> dues = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            long due = random.nextInt(5000);
+            dues.add(due);
+            assertTrue(wheel.add(due, due));
+        }
+        assertEquals(500, wheel.size());
+
+        Map<Long, Integer> firedAt = new HashMap<>(); // due -> how many fired on time
+        long[] lastDue = {-1};
+        for (long now = 0; now <= 5010; now++) {
+            long current = now;
+            wheel.advance(now, due -> {
+                assertEquals(due - Math.floorMod(due, TICK) + TICK, current, "late or early: " + due);
+                assertTrue(due / TICK >= lastDue[0] / TICK, "out of tick order: " + due);
+                lastDue[0] = due;
+                firedAt.merge(due, 1, Integer::sum);
+            });
+        }
+
+        Map<Long, Integer> expected = new HashMap<>();
+        dues.forEach(due -> expected.merge(due, 1, Integer::sum));
+        assertEquals(expected, firedAt);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void idleJumpKeepsLaterEntriesOnTime() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 4, 0);
+        assertTrue(wheel.add(1000, "far"));
+        List<String> fired = new ArrayList<>();
+
+        wheel.advance(995, fired::add); // one call covering many ticks and several cascades
+        assertTrue(fired.isEmpty());
+        wheel.advance(1010, fired::add);
+        assertEquals(List.of("far"), fired);
+
+        wheel.advance(100_000, fired::add); // empty: skips ahead without walking the buckets
+        assertEquals(100_000, wheel.currentTime());
+        assertTrue(wheel.add(100_500, "after skip"));
+        wheel.advance(100_509, fired::add);
+        assertEquals(1, fired.size());
+        wheel.advance(100_510, fired::add);
+        assertEquals(List.of("far", "after skip"), fired);
+    }
+
+    @Test
+    void refusesEntriesAlreadyDue() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 4, 105);
+        assertEquals(100, wheel.currentTime());
+        assertFalse(wheel.add(99, "past"));
+        assertTrue(wheel.add(100, "this tick"));
+        assertEquals(1, wheel.size());
+    }
+}
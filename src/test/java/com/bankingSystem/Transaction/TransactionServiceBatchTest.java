@@ -0,0 +1,102 @@
+package com.bankingSystem.Transaction;
+
+import com.bankingSystem.Account.Account;
+import com.bankingSystem.Account.SavingsAccount;
+import com.bankingSystem.Database.Storage;
+import com.bankingSystem.Util.Ids;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionServiceBatchTest {
+    static {
+        System.setProperty("bank.storage", "memory");
+    }
+
+    private final TransactionService service = new TransactionService();
+
+    // Counts the writes the unit of work makes for this account
+    private static final class CountingAccount extends SavingsAccount {
+        int writes;
+
+        CountingAccount(long balance) {
+            super("T-" + Ids.next(), "test-owner");
+            setBalance(balance);
+            persist();
+            writes = 0;
+        }
+
+        @Override
+        public void persist() {
+            writes++;
+            super.persist();
+        }
+    }
+
+    @Test
+    void refusedItemIsUndoneOnItsOwn() {
+        CountingAccount a = new CountingAccount(100_000);
+        CountingAccount b = new CountingAccount(0);
+
+        List<TransactionResult> results = service.processBatch(List.of(
+                new TransactionRequest(a, b, 60_000, "TRANSFER"),
+                new TransactionRequest(a, b, 60_000, "TRANSFER"), // only 40_000 left
+                new TransactionRequest(null, b, 5_000, "DEPOSIT")));
+
+        assertEquals(TransactionResult.Outcome.COMPLETED, results.get(0).outcome());
+        assertEquals(TransactionResult.Outcome.FAILED, results.get(1).outcome());
+        assertEquals(TransactionResult.Outcome.COMPLETED, results.get(2).outcome());
+        Transaction failed = results.get(1).transaction();
+        assertEquals(TransactionStatus.FAILED, failed.getStatus());
+        assertEquals(results.get(1).message(), failed.getNote());
+        assertEquals(40_000, a.getBalance());
+        assertEquals(65_000, b.getBalance());
+        assertEquals(TransactionStatus.FAILED,
+                Storage.getInstance().transactions().loadTransactionById(failed.getTransactionId()).getStatus());
+    }
+
+    @Test
+    void eachAccountIsWrittenOnce() {
+        CountingAccount a = new CountingAccount(100_000);
+        CountingAccount b = new CountingAccount(100_000);
+        List<TransactionRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            requests.add(i % 2 == 0
+                    ? new TransactionRequest(a, b, 1_000, "TRANSFER")
+                    : new TransactionRequest(b, a, 500, "TRANSFER"));
+        }
+
+        List<TransactionResult> results = service.processBatch(requests);
+
+        assertTrue(results.stream().allMatch(TransactionResult::isCompleted));
+        assertEquals(1, a.writes);
+        assertEquals(1, b.writes);
+        assertEquals(95_000, a.getBalance());
+        assertEquals(105_000, b.getBalance());
+    }
+
+    @Test
+    void failingCommitRollsBackTheWholeBatch() {
+        CountingAccount a = new CountingAccount(100_000);
+        CountingAccount b = new CountingAccount(0);
+        List<TransactionRequest> requests = List.of(
+                new TransactionRequest(a, b, 10_000, "TRANSFER"),
+                new TransactionRequest(null, b, 2_000, "DEPOSIT"));
+
+        assertThrows(IllegalStateException.class, () -> service.processBatch(requests, () -> {
+            throw new IllegalStateException("standing orders not stored");
+        }));
+
+        assertEquals(100_000, a.getBalance());
+        assertEquals(0, b.getBalance());
+        assertEquals(100_000, Storage.getInstance().accounts().loadBalance(a.getAccountNumber()));
+        assertEquals(0, Storage.getInstance().accounts().loadBalance(b.getAccountNumber()));
+        assertTrue(Storage.getInstance().transactions().loadTransactions(a.getAccountNumber()).isEmpty());
+        assertTrue(Storage.getInstance().transactions().loadTransactions(b.getAccountNumber()).isEmpty());
+    }
+}